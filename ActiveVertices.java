@@ -0,0 +1,312 @@
+package sxa190016;
+
+import java.util.Arrays;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Active Vertices: Order in which the push-relabel algorithms select the active vertices.
+ * 							Vertices are given by their index and are stored at most once.
+ */
+public interface ActiveVertices {
+	/**
+	 * Add an active vertex, nothing is done if it is already stored
+	 *
+	 * @param u		Index of the vertex
+	 * @param h		Height of the vertex
+	 */
+	public void add(int u, int h);
+
+	/**
+	 * Remove the next active vertex
+	 *
+	 * @return		Index of the vertex, -1 if there is none
+	 */
+	public int poll();
+
+	/**
+	 * True if there is no active vertex
+	 */
+	public boolean isEmpty();
+
+	/**
+	 * Remove all the active vertices
+	 */
+	public void clear();
+
+	/**
+	 * Select the active vertices in first-in first-out order, using a circular array
+	 */
+	public static class Fifo implements ActiveVertices {
+		/**
+		 * Circular array of the stored vertices
+		 */
+		private int [] queue;
+
+		/**
+		 * Position of the first vertex and number of vertices in the queue
+		 */
+		private int head, size;
+
+		/**
+		 * True for the vertices stored in the queue
+		 */
+		private boolean [] stored;
+
+		/**
+		 * Constructor for a graph with n vertices
+		 *
+		 * @param n		The number of vertices
+		 */
+		public Fifo(int n) {
+			this.queue = new int[Math.max(n, 1)];
+			this.stored = new boolean[n];
+			this.head = 0;
+			this.size = 0;
+		}
+
+		public void add(int u, int h) {
+			if(!this.stored[u])
+			{
+				this.stored[u] = true;
+				this.queue[(this.head+this.size++)%this.queue.length] = u;
+			}
+		}
+
+		public int poll() {
+			if(this.size==0)
+			{
+				return -1;
+			}
+			int u = this.queue[this.head];
+			this.head = (this.head+1)%this.queue.length;
+			this.size--;
+			this.stored[u] = false;
+			return u;
+		}
+
+		public boolean isEmpty() {
+			return this.size==0;
+		}
+
+		public void clear() {
+			Arrays.fill(this.stored, false);
+			this.head = 0;
+			this.size = 0;
+		}
+
+		/**
+		 * Print the names of the vertices in the queue
+		 */
+		public String toString() {
+			StringBuilder sb = new StringBuilder("[");
+			for(int i=0; i<this.size; i++)
+			{
+				sb.append(i>0 ? ", " : "").append(this.queue[(this.head+i)%this.queue.length]+1);
+			}
+			return sb.append("]").toString();
+		}
+	}
+
+	/**
+	 * Select the active vertex with the largest height, using one list of vertices per height.
+	 * A vertex stays in the list of the height it was added with.
+	 */
+	public static class HighestLabel implements ActiveVertices {
+		/**
+		 * First vertex of the list at each height, -1 if the list is empty
+		 */
+		private int [] bucket;
+
+		/**
+		 * Next vertex in the same list, -1 at the end of the list
+		 */
+		private int [] next;
+
+		/**
+		 * True for the vertices stored in a list
+		 */
+		private boolean [] stored;
+
+		/**
+		 * Largest height whose list may not be empty, -1 if all lists are empty
+		 */
+		private int top;
+
+		/**
+		 * Number of stored vertices
+		 */
+		private int size;
+
+		/**
+		 * Constructor for a graph with n vertices, whose heights are at most 2n
+		 *
+		 * @param n		The number of vertices
+		 */
+		public HighestLabel(int n) {
+			this.bucket = new int[2*n+1];
+			this.next = new int[n];
+			this.stored = new boolean[n];
+			Arrays.fill(this.bucket, -1);
+			this.top = -1;
+			this.size = 0;
+		}
+
+		public void add(int u, int h) {
+			if(!this.stored[u])
+			{
+				this.stored[u] = true;
+				this.next[u] = this.bucket[h];
+				this.bucket[h] = u;
+				this.top = Math.max(this.top, h);
+				this.size++;
+			}
+		}
+
+		public int poll() {
+			if(this.size==0)
+			{
+				return -1;
+			}
+			while(this.bucket[this.top]<0)
+			{
+				this.top--;
+			}
+			int u = this.bucket[this.top];
+			this.bucket[this.top] = this.next[u];
+			this.stored[u] = false;
+			this.size--;
+			return u;
+		}
+
+		public boolean isEmpty() {
+			return this.size==0;
+		}
+
+		public void clear() {
+			Arrays.fill(this.bucket, -1);
+			Arrays.fill(this.stored, false);
+			this.top = -1;
+			this.size = 0;
+		}
+
+		/**
+		 * Print the names of the stored vertices from the largest height down
+		 */
+		public String toString() {
+			StringBuilder sb = new StringBuilder("[");
+			String sep = "";
+			for(int h=this.top; h>=0; h--)
+			{
+				for(int u=this.bucket[h]; u>=0; u=this.next[u])
+				{
+					sb.append(sep).append(u+1);
+					sep = ", ";
+				}
+			}
+			return sb.append("]").toString();
+		}
+	}
+
+	/**
+	 * Select the active vertex with the smallest height, using one list of vertices per height.
+	 * A vertex stays in the list of the height it was added with.
+	 */
+	public static class LowestLabel implements ActiveVertices {
+		/**
+		 * First vertex of the list at each height, -1 if the list is empty
+		 */
+		private int [] bucket;
+
+		/**
+		 * Next vertex in the same list, -1 at the end of the list
+		 */
+		private int [] next;
+
+		/**
+		 * True for the vertices stored in a list
+		 */
+		private boolean [] stored;
+
+		/**
+		 * Smallest height whose list may not be empty
+		 */
+		private int bottom;
+
+		/**
+		 * Number of stored vertices
+		 */
+		private int size;
+
+		/**
+		 * Constructor for a graph with n vertices, whose heights are at most 2n
+		 *
+		 * @param n		The number of vertices
+		 */
+		public LowestLabel(int n) {
+			this.bucket = new int[2*n+1];
+			this.next = new int[n];
+			this.stored = new boolean[n];
+			Arrays.fill(this.bucket, -1);
+			this.bottom = this.bucket.length;
+			this.size = 0;
+		}
+
+		public void add(int u, int h) {
+			if(!this.stored[u])
+			{
+				this.stored[u] = true;
+				this.next[u] = this.bucket[h];
+				this.bucket[h] = u;
+				this.bottom = Math.min(this.bottom, h);
+				this.size++;
+			}
+		}
+
+		public int poll() {
+			if(this.size==0)
+			{
+				return -1;
+			}
+			while(this.bucket[this.bottom]<0)
+			{
+				this.bottom++;
+			}
+			int u = this.bucket[this.bottom];
+			this.bucket[this.bottom] = this.next[u];
+			this.stored[u] = false;
+			this.size--;
+			return u;
+		}
+
+		public boolean isEmpty() {
+			return this.size==0;
+		}
+
+		public void clear() {
+			Arrays.fill(this.bucket, -1);
+			Arrays.fill(this.stored, false);
+			this.bottom = this.bucket.length;
+			this.size = 0;
+		}
+
+		/**
+		 * Print the names of the stored vertices from the smallest height up
+		 */
+		public String toString() {
+			StringBuilder sb = new StringBuilder("[");
+			String sep = "";
+			for(int h=this.bottom; h<this.bucket.length; h++)
+			{
+				for(int u=this.bucket[h]; u>=0; u=this.next[u])
+				{
+					sb.append(sep).append(u+1);
+					sep = ", ";
+				}
+			}
+			return sb.append("]").toString();
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package sxa190016;
+
+import sxa190016.Graph.*;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Batch Flow: Answer many s-t max-flow queries on one graph. The CSR view of the graph and the capacities
+ * 							are built once and shared read-only, each worker thread keeps its own Flow with its flow,
+ * 							excess and height buffers, and the results are handed back as each query finishes.
+ */
+public class BatchFlow {
+	/**
+	 * The directed graph
+	 */
+	private Graph g;
+
+	/**
+	 * The CSR view of g, shared by all the flows
+	 */
+	private CSRGraph csr;
+
+	/**
+	 * Capacity of each edge, shared by all the flows
+	 */
+	private EdgeIntProperty capacity;
+
+	/**
+	 * Number of worker threads
+	 */
+	private int threads;
+
+	/**
+	 * Result of one query
+	 */
+	public static class Result {
+		/**
+		 * Position of the query in the list of pairs
+		 */
+		public final int index;
+
+		/**
+		 * The source and the sink of the query
+		 */
+		public final Vertex s, t;
+
+		/**
+		 * The max flow value from s to t
+		 */
+		public final int value;
+
+		Result(int index, Vertex s, Vertex t, int value) {
+			this.index = index;
+			this.s = s;
+			this.t = t;
+			this.value = value;
+		}
+
+		public String toString() {
+			return this.s + " " + this.t + " " + this.value;
+		}
+	}
+
+	/**
+	 * Constructor using one thread per available processor
+	 *
+	 * @param g			The directed graph
+	 * @param capacity	Capacity of each edge indexed by edge index
+	 */
+	public BatchFlow(Graph g, EdgeIntProperty capacity) {
+		this(g, capacity, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor to initialize the member variables
+	 *
+	 * @param g			The directed graph
+	 * @param capacity	Capacity of each edge indexed by edge index
+	 * @param threads	Number of worker threads
+	 */
+	public BatchFlow(Graph g, EdgeIntProperty capacity, int threads) {
+		this.g = g;
+		this.csr = new CSRGraph(g);
+		this.capacity = capacity;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Run the queries concurrently and give each result to sink as soon as its query finishes, so the results
+	 * come in the order the queries finish. sink is called from the calling thread only.
+	 *
+	 * @param pairs		The source and the sink of each query
+	 * @param sink		Receives the result of each query
+	 */
+	public void run(List<Vertex[]> pairs, Consumer<Result> sink) {
+		for(Vertex[] pair: pairs)
+		{
+			if(pair[0].equals(pair[1]))
+			{
+				throw new IllegalArgumentException("Source and sink are the same vertex "+pair[0]);
+			}
+		}
+		int workers = Math.min(this.threads, pairs.size());
+		ThreadLocal<Flow> flows = new ThreadLocal<>();
+		if(workers<=1)
+		{
+			for(int i=0; i<pairs.size(); i++)
+			{
+				sink.accept(solve(flows, i, pairs.get(i)));
+			}
+			return;
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+		try
+		{
+			CompletionService<Result> done = new ExecutorCompletionService<>(pool);
+			for(int i=0; i<pairs.size(); i++)
+			{
+				final int index = i;
+				final Vertex[] pair = pairs.get(i);
+				done.submit(() -> solve(flows, index, pair));
+			}
+			for(int i=0; i<pairs.size(); i++)
+			{
+				sink.accept(done.take().get());
+			}
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while computing max flows", e);
+		}
+		catch(ExecutionException e)
+		{
+			throw new IllegalStateException(e.getCause());
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Run the queries concurrently and wait for all of them
+	 *
+	 * @param pairs		The source and the sink of each query
+	 * @return			The max flow value of each query, in the order of pairs
+	 */
+	public int[] run(List<Vertex[]> pairs) {
+		int [] values = new int[pairs.size()];
+		run(pairs, r -> values[r.index] = r.value);
+		return values;
+	}
+
+	/**
+	 * Answer one query with the Flow of the current thread, which is made on its first query
+	 *
+	 * @param flows		The Flow of each thread
+	 * @param index		Position of the query
+	 * @param pair		The source and the sink
+	 * @return			The result of the query
+	 */
+	private Result solve(ThreadLocal<Flow> flows, int index, Vertex[] pair)
+	{
+		Flow f = flows.get();
+		if(f==null)
+		{
+			f = new Flow(this.g, this.csr, pair[0], pair[1], this.capacity);
+			f.setActiveVertices(new ActiveVertices.HighestLabel(this.csr.n));
+			flows.set(f);
+		}
+		else
+		{
+			f.setTerminals(pair[0], pair[1]);
+		}
+		return new Result(index, pair[0], pair[1], f.preflowPush());
+	}
+}
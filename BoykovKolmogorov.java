@@ -0,0 +1,420 @@
+package sxa190016;
+
+import sxa190016.Graph.*;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Boykov-Kolmogorov: Find the Max-Flow through a directed graph with the Boykov-Kolmogorov algorithm.
+ * 							Two search trees are grown from the source and the sink until they touch, the path found is
+ * 							augmented, and the vertices cut off from their tree by saturated arcs are adopted again,
+ * 							so the trees are reused instead of being rebuilt for every path.
+ */
+public class BoykovKolmogorov implements MaxFlowSolver {
+	/**
+	 * Tree of each vertex
+	 */
+	private static final byte FREE = 0, SOURCE = 1, SINK = 2;
+
+	/**
+	 * Parent of the terminals and of the vertices which have none
+	 */
+	private static final int TERMINAL = -2, NONE = -1;
+
+	/**
+	 * The CSR view of the graph
+	 */
+	private CSRGraph csr;
+
+	/**
+	 * Index of the source and the sink vertex
+	 */
+	private int s, t;
+
+	/**
+	 * Contains the capacity of all the edges
+	 */
+	private EdgeIntProperty capacity;
+
+	/**
+	 * Stores the flow through all the edges
+	 */
+	private EdgeIntProperty flow;
+
+	/**
+	 * Tree of each vertex: FREE, SOURCE or SINK
+	 */
+	private byte [] tree;
+
+	/**
+	 * Arc joining each vertex to its parent: from the parent in the source tree, to the parent in the sink tree
+	 */
+	private int [] parent;
+
+	/**
+	 * Circular queue of active vertices and a flag for the vertices in it
+	 */
+	private int [] active;
+	private int activeHead, activeSize;
+	private boolean [] isActive;
+
+	/**
+	 * Queue of orphans
+	 */
+	private int [] orphans;
+	private int orphanHead, orphanTail;
+
+	/**
+	 * Time at which the distance of a vertex to its terminal was last found, and that distance
+	 */
+	private int [] stamp;
+	private int [] dist;
+	private int time;
+
+	/**
+	 * Number of paths augmented by the last run
+	 */
+	private int augmentations;
+
+	/**
+	 * Constructor to initialize the member variables
+	 *
+	 * @param g			The directed graph
+	 * @param s			The source vertex
+	 * @param t			The sink vertex
+	 * @param capacity	Capacity of each edge indexed by edge index
+	 */
+	public BoykovKolmogorov(Graph g, Vertex s, Vertex t, EdgeIntProperty capacity) {
+		int n = g.size();
+		this.csr = new CSRGraph(g);
+		this.s = s.getIndex();
+		this.t = t.getIndex();
+		this.capacity = capacity;
+		this.flow = new EdgeIntProperty(g);
+		this.tree = new byte[n];
+		this.parent = new int[n];
+		this.active = new int[Math.max(n, 1)];
+		this.isActive = new boolean[n];
+		this.orphans = new int[Math.max(n, 1)];
+		this.stamp = new int[n];
+		this.dist = new int[n];
+	}
+
+	/**
+	 * Find the max flow by growing the two search trees, augmenting and adopting the orphans until the trees cannot grow
+	 *
+	 * @return			The max flow value
+	 */
+	public int maxFlow() {
+		int n = this.csr.n;
+		this.flow.fill(0);
+		for(int u=0; u<n; u++)
+		{
+			this.tree[u] = FREE;
+			this.parent[u] = NONE;
+			this.isActive[u] = false;
+			this.stamp[u] = 0;
+		}
+		this.activeHead = 0;
+		this.activeSize = 0;
+		this.time = 0;
+		this.augmentations = 0;
+		this.tree[this.s] = SOURCE;
+		this.tree[this.t] = SINK;
+		this.parent[this.s] = TERMINAL;
+		this.parent[this.t] = TERMINAL;
+		this.dist[this.s] = 0;
+		this.dist[this.t] = 0;
+		activate(this.s);
+		activate(this.t);
+
+		int total = 0;
+		int bridge;
+		while((bridge = grow())>=0)
+		{
+			this.time++;
+			total += augment(bridge);
+			this.augmentations++;
+			adopt();
+		}
+		return total;
+	}
+
+	/**
+	 * Number of paths augmented by the last call to maxFlow
+	 */
+	public int augmentations() {
+		return this.augmentations;
+	}
+
+	/**
+	 * Grow the trees from the active vertices until they touch
+	 *
+	 * @return			The arc from the source tree to the sink tree joining them, -1 if they cannot grow any more
+	 */
+	private int grow()
+	{
+		while(this.activeSize>0)
+		{
+			int p = this.active[this.activeHead];
+			if(this.tree[p]==FREE)
+			{
+				poll();
+				continue;
+			}
+			for(int a=this.csr.first[p]; a<this.csr.first[p+1]; a++)
+			{
+				int q = this.csr.head[a];
+
+				//The arc into the tree: p->q in the source tree, q->p in the sink tree
+				int into = this.tree[p]==SOURCE ? a : this.csr.rev[a];
+				if(residual(into)==0)
+				{
+					continue;
+				}
+				if(this.tree[q]==FREE)
+				{
+					this.tree[q] = this.tree[p];
+					this.parent[q] = into;
+					this.stamp[q] = this.stamp[p];
+					this.dist[q] = this.dist[p]+1;
+					activate(q);
+				}
+				else if(this.tree[q]!=this.tree[p])
+				{
+					//The trees touch, p stays active for the next search
+					return into;
+				}
+			}
+			poll();
+		}
+		return -1;
+	}
+
+	/**
+	 * Augment along the path through the bridge arc and make orphans of the vertices whose parent arc gets saturated
+	 *
+	 * @param bridge	Arc from a vertex of the source tree to a vertex of the sink tree
+	 * @return			The flow added
+	 */
+	private int augment(int bridge)
+	{
+		//Find the bottleneck on both sides of the bridge
+		int delta = residual(bridge);
+		for(int v=this.csr.tail[bridge]; this.parent[v]!=TERMINAL; v=this.csr.tail[this.parent[v]])
+		{
+			delta = Math.min(delta, residual(this.parent[v]));
+		}
+		for(int v=this.csr.head[bridge]; this.parent[v]!=TERMINAL; v=this.csr.head[this.parent[v]])
+		{
+			delta = Math.min(delta, residual(this.parent[v]));
+		}
+
+		this.orphanHead = 0;
+		this.orphanTail = 0;
+		push(bridge, delta);
+		for(int v=this.csr.tail[bridge]; this.parent[v]!=TERMINAL; )
+		{
+			int a = this.parent[v];
+			int u = this.csr.tail[a];
+			push(a, delta);
+			if(residual(a)==0)
+			{
+				this.parent[v] = NONE;
+				this.orphans[this.orphanTail++] = v;
+			}
+			v = u;
+		}
+		for(int v=this.csr.head[bridge]; this.parent[v]!=TERMINAL; )
+		{
+			int a = this.parent[v];
+			int u = this.csr.head[a];
+			push(a, delta);
+			if(residual(a)==0)
+			{
+				this.parent[v] = NONE;
+				this.orphans[this.orphanTail++] = v;
+			}
+			v = u;
+		}
+		return delta;
+	}
+
+	/**
+	 * Give each orphan a new parent in its tree which is still joined to the terminal, or free it
+	 */
+	private void adopt()
+	{
+		while(this.orphanHead<this.orphanTail)
+		{
+			int p = this.orphans[this.orphanHead++];
+			byte pt = this.tree[p];
+			int best = NONE;
+			int bestDist = Integer.MAX_VALUE;
+			for(int a=this.csr.first[p]; a<this.csr.first[p+1]; a++)
+			{
+				int q = this.csr.head[a];
+				int from = pt==SOURCE ? this.csr.rev[a] : a;
+				if(this.tree[q]!=pt || residual(from)==0)
+				{
+					continue;
+				}
+				int d = origin(q, pt);
+				if(d<bestDist)
+				{
+					best = from;
+					bestDist = d;
+				}
+			}
+			if(best!=NONE)
+			{
+				this.parent[p] = best;
+				this.stamp[p] = this.time;
+				this.dist[p] = bestDist+1;
+				continue;
+			}
+
+			//No parent: p becomes free, its neighbors in the tree may grow into it and its children become orphans
+			for(int a=this.csr.first[p]; a<this.csr.first[p+1]; a++)
+			{
+				int q = this.csr.head[a];
+				if(this.tree[q]!=pt)
+				{
+					continue;
+				}
+				int from = pt==SOURCE ? this.csr.rev[a] : a;
+				if(residual(from)>0)
+				{
+					activate(q);
+				}
+				int child = pt==SOURCE ? a : this.csr.rev[a];
+				if(this.parent[q]==child)
+				{
+					this.parent[q] = NONE;
+					this.orphans[this.orphanTail++] = q;
+				}
+			}
+			this.tree[p] = FREE;
+		}
+	}
+
+	/**
+	 * Distance of q to the terminal of its tree following the parent arcs, marking the vertices on the way
+	 *
+	 * @param q			Index of the vertex
+	 * @param pt		The tree of q
+	 * @return			The distance, Integer.MAX_VALUE if q is not joined to the terminal any more
+	 */
+	private int origin(int q, byte pt)
+	{
+		int d = 0;
+		int j = q;
+		while(true)
+		{
+			if(this.stamp[j]==this.time)
+			{
+				d += this.dist[j];
+				break;
+			}
+			if(this.parent[j]==TERMINAL)
+			{
+				this.stamp[j] = this.time;
+				this.dist[j] = 0;
+				break;
+			}
+			if(this.parent[j]==NONE)
+			{
+				return Integer.MAX_VALUE;
+			}
+			d++;
+			j = pt==SOURCE ? this.csr.tail[this.parent[j]] : this.csr.head[this.parent[j]];
+		}
+
+		//Mark the path so that later searches stop here
+		int dd = d;
+		for(j=q; this.stamp[j]!=this.time; j = pt==SOURCE ? this.csr.tail[this.parent[j]] : this.csr.head[this.parent[j]])
+		{
+			this.stamp[j] = this.time;
+			this.dist[j] = dd--;
+		}
+		return d;
+	}
+
+	/**
+	 * Add a vertex to the active queue if it is not there
+	 */
+	private void activate(int u)
+	{
+		if(!this.isActive[u])
+		{
+			this.isActive[u] = true;
+			this.active[(this.activeHead+this.activeSize++)%this.active.length] = u;
+		}
+	}
+
+	/**
+	 * Remove the first vertex of the active queue
+	 */
+	private void poll()
+	{
+		this.isActive[this.active[this.activeHead]] = false;
+		this.activeHead = (this.activeHead+1)%this.active.length;
+		this.activeSize--;
+	}
+
+	/**
+	 * Push delta units of flow along arc a
+	 */
+	private void push(int a, int delta)
+	{
+		this.flow.add(this.csr.edge[a], this.csr.forward[a] ? delta : -delta);
+	}
+
+	/**
+	 * Residual capacity of arc a
+	 */
+	private int residual(int a)
+	{
+		int k = this.csr.edge[a];
+		return this.csr.forward[a] ? this.capacity.get(k)-this.flow.get(k) : this.flow.get(k);
+	}
+
+	public int flow(Edge e) {
+		return this.flow.get(e);
+	}
+
+	public int capacity(Edge e) {
+		return this.capacity.get(e);
+	}
+
+	/**
+	 * The vertices of the source tree, which cannot grow to the sink any more
+	 */
+	public Set<Vertex> minCutS() {
+		Set<Vertex> S = new HashSet<Vertex>();
+		for(int u=0; u<this.csr.n; u++)
+		{
+			if(this.tree[u]==SOURCE)
+			{
+				S.add(this.csr.vertex[u]);
+			}
+		}
+		return S;
+	}
+
+	public Set<Vertex> minCutT() {
+		Set<Vertex> T = new HashSet<Vertex>();
+		for(int u=0; u<this.csr.n; u++)
+		{
+			if(this.tree[u]!=SOURCE)
+			{
+				T.add(this.csr.vertex[u]);
+			}
+		}
+		return T;
+	}
+}
@@ -0,0 +1,267 @@
+package sxa190016;
+
+import sxa190016.Graph.*;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 CSR Graph: Immutable compressed-sparse-row (forward-star) view of a directed graph.
+ * 							The arcs leaving vertex u are stored contiguously in [first[u], first[u+1]):
+ * 							first the forward arcs of its outgoing edges, then the reverse arcs of its
+ * 							incoming edges, so residual graph algorithms can scan them by index.
+ */
+public class CSRGraph {
+	/**
+	 * Number of vertices
+	 */
+	final int n;
+
+	/**
+	 * Number of edges, the number of arcs is 2m
+	 */
+	final int m;
+
+	/**
+	 * Arcs of vertex u are stored at [first[u], first[u+1])
+	 */
+	final int [] first;
+
+	/**
+	 * Forward arcs of vertex u are stored at [first[u], mid[u]) and reverse arcs at [mid[u], first[u+1])
+	 */
+	final int [] mid;
+
+	/**
+	 * Index of the vertex at which each arc ends
+	 */
+	final int [] head;
+
+	/**
+	 * Index of the vertex from which each arc starts
+	 */
+	final int [] tail;
+
+	/**
+	 * Index of the paired reverse arc of each arc
+	 */
+	final int [] rev;
+
+	/**
+	 * Index of the edge each arc belongs to
+	 */
+	final int [] edge;
+
+	/**
+	 * True if the arc has the same direction as its edge
+	 */
+	final boolean [] forward;
+
+	/**
+	 * Index of the forward arc of each edge
+	 */
+	final int [] arcOf;
+
+	/**
+	 * Index of the vertex from which each edge starts
+	 */
+	final int [] from;
+
+	/**
+	 * Index of the vertex at which each edge ends
+	 */
+	final int [] to;
+
+	/**
+	 * Vertex stored at each index
+	 */
+	final Vertex [] vertex;
+
+	/**
+	 * Edge stored at each index, null for the extra edge
+	 */
+	final Edge [] edges;
+
+	/**
+	 * Build the CSR view of a directed graph. Edge with name i+1 is stored at index i,
+	 * so the edges of g must be named 1..m.
+	 *
+	 * @param g			The directed graph
+	 */
+	public CSRGraph(Graph g) {
+		this(g, null, null);
+	}
+
+	/**
+	 * Build the CSR view of a directed graph with one extra edge, which is not in g and has no Edge object. It is
+	 * stored at index g.edgeSize(), after the edges of g, and its arcs come last among the forward arcs of from and
+	 * the reverse arcs of to, so a solver can add an artificial edge without copying the graph.
+	 *
+	 * @param g			The directed graph
+	 * @param from		The vertex from which the extra edge starts, null for no extra edge
+	 * @param to		The vertex at which the extra edge ends
+	 */
+	public CSRGraph(Graph g, Vertex from, Vertex to) {
+		int edges = g.edgeSize();
+		int extra = from==null ? -1 : edges;
+		this.n = g.size();
+		this.m = from==null ? edges : edges+1;
+		this.first = new int[this.n+1];
+		this.mid = new int[this.n];
+		this.head = new int[2*this.m];
+		this.tail = new int[2*this.m];
+		this.rev = new int[2*this.m];
+		this.edge = new int[2*this.m];
+		this.forward = new boolean[2*this.m];
+		this.arcOf = new int[this.m];
+		this.from = new int[this.m];
+		this.to = new int[this.m];
+		this.vertex = g.getVertexArray();
+		this.edges = new Edge[this.m];
+
+		//Count the arcs leaving each vertex
+		for(Edge e: g.getEdgeArray())
+		{
+			int k = e.getIndex();
+			if(k<0 || k>=edges || this.edges[k]!=null)
+			{
+				throw new IllegalArgumentException("Edges must be named 1.."+edges+", found "+e.getName());
+			}
+			this.edges[k] = e;
+			this.from[k] = e.fromVertex().getIndex();
+			this.to[k] = e.toVertex().getIndex();
+			this.first[this.from[k]+1]++;
+			this.first[this.to[k]+1]++;
+		}
+		if(extra>=0)
+		{
+			this.from[extra] = from.getIndex();
+			this.to[extra] = to.getIndex();
+			this.first[this.from[extra]+1]++;
+			this.first[this.to[extra]+1]++;
+		}
+		for(int u=0; u<this.n; u++)
+		{
+			this.first[u+1] += this.first[u];
+		}
+
+		//Place the forward arcs in the order of the adjacency lists
+		int [] next = new int[this.n];
+		for(Vertex u: g)
+		{
+			int ui = u.getIndex();
+			next[ui] = this.first[ui];
+			for(Edge e: g.outEdges(u))
+			{
+				int a = next[ui]++;
+				int k = e.getIndex();
+				this.head[a] = this.to[k];
+				this.tail[a] = ui;
+				this.edge[a] = k;
+				this.forward[a] = true;
+				this.arcOf[k] = a;
+			}
+			if(extra>=0 && ui==this.from[extra])
+			{
+				int a = next[ui]++;
+				this.head[a] = this.to[extra];
+				this.tail[a] = ui;
+				this.edge[a] = extra;
+				this.forward[a] = true;
+				this.arcOf[extra] = a;
+			}
+			this.mid[ui] = next[ui];
+		}
+
+		//Place the reverse arcs and pair them with their forward arcs
+		for(Vertex u: g)
+		{
+			int ui = u.getIndex();
+			for(Edge e: g.inEdges(u))
+			{
+				int a = next[ui]++;
+				int k = e.getIndex();
+				this.head[a] = this.from[k];
+				this.tail[a] = ui;
+				this.edge[a] = k;
+				this.forward[a] = false;
+				this.rev[a] = this.arcOf[k];
+				this.rev[this.arcOf[k]] = a;
+			}
+		}
+		if(extra>=0)
+		{
+			int a = next[this.to[extra]]++;
+			this.head[a] = this.from[extra];
+			this.tail[a] = this.to[extra];
+			this.edge[a] = extra;
+			this.forward[a] = false;
+			this.rev[a] = this.arcOf[extra];
+			this.rev[this.arcOf[extra]] = a;
+		}
+	}
+
+	/**
+	 * Number of vertices in the graph
+	 */
+	public int size() {
+		return this.n;
+	}
+
+	/**
+	 * Number of edges in the graph
+	 */
+	public int edgeSize() {
+		return this.m;
+	}
+
+	/**
+	 * Number of arcs in the residual graph
+	 */
+	public int arcSize() {
+		return 2*this.m;
+	}
+
+	/**
+	 * Number of outgoing edges of vertex at index u
+	 */
+	public int outDegree(int u) {
+		return this.mid[u]-this.first[u];
+	}
+
+	/**
+	 * Number of incoming edges of vertex at index u
+	 */
+	public int inDegree(int u) {
+		return this.first[u+1]-this.mid[u];
+	}
+
+	/**
+	 * Index of the vertex v
+	 */
+	public int index(Vertex v) {
+		return v.getIndex();
+	}
+
+	/**
+	 * Index of the edge e
+	 */
+	public int index(Edge e) {
+		return e.getIndex();
+	}
+
+	/**
+	 * Vertex stored at index u
+	 */
+	public Vertex getVertex(int u) {
+		return this.vertex[u];
+	}
+
+	/**
+	 * Edge stored at index k
+	 */
+	public Edge getEdge(int k) {
+		return this.edges[k];
+	}
+}
@@ -2,7 +2,6 @@ package sxa190016;
 
 import sxa190016.Graph.Vertex;
 import sxa190016.Graph;
-import sxa190016.Graph.Edge;
 import sxa190016.Graph.GraphAlgorithm;
 import sxa190016.Graph.Factory;
 import java.io.File;
@@ -26,6 +25,8 @@ public class DFS extends GraphAlgorithm<DFS.DFSVertex> {
 	private int topNo;
 	public boolean isCyclic;
 	List<List<Vertex>> SCC_Vertex;
+	private CSRGraph csr;
+	private boolean reversed;
 
 	public static class DFSVertex implements Factory {
 
@@ -101,7 +102,19 @@ public class DFS extends GraphAlgorithm<DFS.DFSVertex> {
 	 * @param g Given graph
 	 */
 	public DFS(Graph g) {
+		this(g, new CSRGraph(g));
+	}
+
+	/**
+	 * Initialing Graph g whose CSR view has already been built
+	 * 
+	 * @param g   Given graph
+	 * @param csr CSR view of g
+	 */
+	public DFS(Graph g, CSRGraph csr) {
 		super(g, new DFSVertex(null));
+		this.csr = csr;
+		reversed = false;
 		scc = 0;
 		topologicalOrderedList = new LinkedList<>();
 		isCyclic = false;
@@ -136,8 +149,11 @@ public class DFS extends GraphAlgorithm<DFS.DFSVertex> {
 	private void dfsVisit(Vertex u) {
 		get(u).visited = true;
 		SCC_Vertex.get(scc - 1).add(u);
-		for (Edge e : g.outEdges(u)) {
-			Vertex v = e.otherEnd(u);
+		int ui = u.getIndex();
+		int begin = reversed ? csr.mid[ui] : csr.first[ui];
+		int end = reversed ? csr.first[ui + 1] : csr.mid[ui];
+		for (int a = begin; a < end; a++) {
+			Vertex v = csr.vertex[csr.head[a]];
 			if (!get(v).visited) {
 				get(v).cno = get(u).cno;
 				get(v).parent = u;
@@ -193,12 +209,35 @@ public class DFS extends GraphAlgorithm<DFS.DFSVertex> {
 	 * @return Returns DFS object with SCC information
 	 */
 	public static DFS SCC_Vertex(Graph g) {
-		DFS d = new DFS(g);
+		return SCC_Vertex(g, new CSRGraph(g));
+	}
+
+	/**
+	 * Computes strongly connected components of a given graph whose CSR view has
+	 * already been built. The second DFS scans the incoming edges instead of
+	 * reversing the graph.
+	 * 
+	 * @param g   Given graph
+	 * @param csr CSR view of g
+	 * @return Returns DFS object with SCC information
+	 */
+	public static DFS SCC_Vertex(Graph g, CSRGraph csr) {
+		SolverEvents.StronglyConnectedComponents event = SolverEvents.ENABLED ? new SolverEvents.StronglyConnectedComponents() : null;
+		if (event != null) {
+			event.begin();
+		}
+		DFS d = new DFS(g, csr);
 		d.dfsAll();
 		List<Vertex> list = d.topologicalOrderedList;
-		g.reverseGraph();
+		d.reversed = true;
 		d.dfsAll(list);
-		g.reverseGraph();
+		d.reversed = false;
+		if (event != null && event.shouldCommit()) {
+			event.vertices = csr.n;
+			event.edges = csr.m;
+			event.components = d.scc;
+			event.commit();
+		}
 		return d;
 	}
 
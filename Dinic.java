@@ -0,0 +1,248 @@
+package sxa190016;
+
+import sxa190016.Graph.*;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Dinic: Find the Max-Flow through a directed graph by Dinic's algorithm. Each phase labels the vertices
+ * 							by their BFS level from the source in the residual graph, then augments along shortest paths
+ * 							until the level graph is blocked, using a current arc per vertex.
+ */
+public class Dinic implements MaxFlowSolver {
+	/**
+	 * The CSR view of the graph
+	 */
+	private CSRGraph csr;
+
+	/**
+	 * Index of the source and the sink vertex
+	 */
+	private int s, t;
+
+	/**
+	 * Contains the capacity of all the edges
+	 */
+	private EdgeIntProperty capacity;
+
+	/**
+	 * Stores the flow through all the edges
+	 */
+	private EdgeIntProperty flow;
+
+	/**
+	 * BFS level of each vertex from the source, -1 if it cannot be reached
+	 */
+	private int [] level;
+
+	/**
+	 * Current arc of each vertex in the level graph
+	 */
+	private int [] current;
+
+	/**
+	 * Arcs of the path being built from the source
+	 */
+	private int [] path;
+
+	/**
+	 * Number of phases done by the last run
+	 */
+	private int phases;
+
+	/**
+	 * Constructor to initialize the member variables
+	 *
+	 * @param g			The directed graph
+	 * @param s			The source vertex
+	 * @param t			The sink vertex
+	 * @param capacity	Capacity of each edge indexed by edge index
+	 */
+	public Dinic(Graph g, Vertex s, Vertex t, EdgeIntProperty capacity) {
+		this.csr = new CSRGraph(g);
+		this.s = s.getIndex();
+		this.t = t.getIndex();
+		this.capacity = capacity;
+		this.flow = new EdgeIntProperty(g);
+		this.level = new int[g.size()];
+		this.current = new int[g.size()];
+		this.path = new int[g.size()];
+	}
+
+	/**
+	 * Find the max flow by augmenting along blocking flows of the level graph
+	 *
+	 * @return			The max flow value
+	 */
+	public int maxFlow() {
+		this.flow.fill(0);
+		this.phases = 0;
+		int total = 0;
+		
+		//No flow goes from a vertex to itself, as in Flow and BoykovKolmogorov
+		if(this.s==this.t)
+		{
+			return total;
+		}
+		while(bfs())
+		{
+			this.phases++;
+			System.arraycopy(this.csr.first, 0, this.current, 0, this.csr.n);
+			total += blockingFlow();
+		}
+		return total;
+	}
+
+	/**
+	 * Number of phases done by the last call to maxFlow
+	 */
+	public int phases() {
+		return this.phases;
+	}
+
+	/**
+	 * Label each vertex with its BFS level from the source in the residual graph
+	 *
+	 * @return			True if the sink can be reached
+	 */
+	private boolean bfs()
+	{
+		Arrays.fill(this.level, -1);
+		int [] queue = this.path;
+		int head = 0, tail = 0;
+		this.level[this.s] = 0;
+		queue[tail++] = this.s;
+		while(head<tail)
+		{
+			int u = queue[head++];
+			for(int a=this.csr.first[u]; a<this.csr.first[u+1]; a++)
+			{
+				int v = this.csr.head[a];
+				if(this.level[v]<0 && residual(a)>0)
+				{
+					this.level[v] = this.level[u]+1;
+					queue[tail++] = v;
+				}
+			}
+		}
+		return this.level[this.t]>=0;
+	}
+
+	/**
+	 * Augment along paths of the level graph until none is left
+	 *
+	 * @return			The flow added in this phase
+	 */
+	private int blockingFlow()
+	{
+		int total = 0;
+		int len = 0;
+		int u = this.s;
+		while(true)
+		{
+			if(u==this.t)
+			{
+				//Augment by the bottleneck of the path and restart from the tail of its first saturated arc
+				int delta = Integer.MAX_VALUE;
+				for(int i=0; i<len; i++)
+				{
+					delta = Math.min(delta, residual(this.path[i]));
+				}
+				int cut = -1;
+				for(int i=0; i<len; i++)
+				{
+					int a = this.path[i];
+					this.flow.add(this.csr.edge[a], this.csr.forward[a] ? delta : -delta);
+					if(cut<0 && residual(a)==0)
+					{
+						cut = i;
+					}
+				}
+				total += delta;
+				len = cut;
+				u = this.csr.tail[this.path[cut]];
+				continue;
+			}
+
+			//Advance along the current arc if it is in the level graph, else move to the next arc
+			int end = this.csr.first[u+1];
+			while(this.current[u]<end)
+			{
+				int a = this.current[u];
+				if(residual(a)>0 && this.level[this.csr.head[a]]==this.level[u]+1)
+				{
+					break;
+				}
+				this.current[u]++;
+			}
+			if(this.current[u]<end)
+			{
+				int a = this.current[u];
+				this.path[len++] = a;
+				u = this.csr.head[a];
+			}
+			else
+			{
+				//Dead end: remove u from the level graph and retreat
+				this.level[u] = -1;
+				if(u==this.s)
+				{
+					return total;
+				}
+				u = this.csr.tail[this.path[--len]];
+				this.current[u]++;
+			}
+		}
+	}
+
+	/**
+	 * Residual capacity of arc a
+	 */
+	private int residual(int a)
+	{
+		int k = this.csr.edge[a];
+		return this.csr.forward[a] ? this.capacity.get(k)-this.flow.get(k) : this.flow.get(k);
+	}
+
+	public int flow(Edge e) {
+		return this.flow.get(e);
+	}
+
+	public int capacity(Edge e) {
+		return this.capacity.get(e);
+	}
+
+	/**
+	 * The vertices reached by the last BFS, which found no path to the sink
+	 */
+	public Set<Vertex> minCutS() {
+		Set<Vertex> S = new HashSet<Vertex>();
+		bfs();
+		for(int u=0; u<this.csr.n; u++)
+		{
+			if(this.level[u]>=0)
+			{
+				S.add(this.csr.vertex[u]);
+			}
+		}
+		return S;
+	}
+
+	public Set<Vertex> minCutT() {
+		Set<Vertex> S = minCutS();
+		Set<Vertex> T = new HashSet<Vertex>();
+		for(Vertex u: this.csr.vertex)
+		{
+			if(!S.contains(u))
+			{
+				T.add(u);
+			}
+		}
+		return T;
+	}
+}
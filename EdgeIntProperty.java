@@ -0,0 +1,133 @@
+package sxa190016;
+
+import sxa190016.Graph.*;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Edge Property: Store a int value for each edge of a graph in a int array indexed by
+ * 							the edge index, so that algorithms can read and update it without hashing or boxing.
+ */
+public class EdgeIntProperty {
+	/**
+	 * Index i stores the value of the edge with name i+1
+	 */
+	final int [] value;
+
+	/**
+	 * Constructor to create a property with value 0 for m edges
+	 * 
+	 * @param m		The number of edges
+	 */
+	public EdgeIntProperty(int m) {
+		this.value = new int[m];
+	}
+
+	/**
+	 * Constructor to create a property with value 0 for every edge of g
+	 * 
+	 * @param g		The graph
+	 */
+	public EdgeIntProperty(Graph g) {
+		this(g.edgeSize());
+	}
+
+	/**
+	 * Constructor to copy the values of a map into a property for the edges of g
+	 * 
+	 * @param g		The graph
+	 * @param map	The value of each edge, missing edges get 0
+	 */
+	public EdgeIntProperty(Graph g, Map<Edge, ? extends Number> map) {
+		this(g);
+		for(Map.Entry<Edge, ? extends Number> entry : map.entrySet())
+		{
+			this.value[entry.getKey().getIndex()] = entry.getValue().intValue();
+		}
+	}
+
+	/**
+	 * Constructor to copy the values of another property into one for m edges, the edges it does not have get 0
+	 * 
+	 * @param other	The property to copy
+	 * @param m		The number of edges
+	 */
+	public EdgeIntProperty(EdgeIntProperty other, int m) {
+		this.value = Arrays.copyOf(other.value, m);
+	}
+
+	/**
+	 * Value of edge e
+	 */
+	public int get(Edge e) {
+		return this.value[e.getIndex()];
+	}
+
+	/**
+	 * Value of the edge at index k
+	 */
+	public int get(int k) {
+		return this.value[k];
+	}
+
+	/**
+	 * Set the value of edge e
+	 */
+	public void put(Edge e, int v) {
+		this.value[e.getIndex()] = v;
+	}
+
+	/**
+	 * Set the value of the edge at index k
+	 */
+	public void set(int k, int v) {
+		this.value[k] = v;
+	}
+
+	/**
+	 * Add delta to the value of the edge at index k
+	 */
+	public void add(int k, int delta) {
+		this.value[k] += delta;
+	}
+
+	/**
+	 * Set the value of every edge to v
+	 */
+	public void fill(int v) {
+		Arrays.fill(this.value, v);
+	}
+
+	/**
+	 * Number of edges in the property
+	 */
+	public int size() {
+		return this.value.length;
+	}
+
+	/**
+	 * Largest value among all edges, 0 if there are no edges
+	 */
+	public int max() {
+		int result = 0;
+		for(int k=0; k<this.value.length; k++)
+		{
+			if(k==0 || this.value[k]>result)
+			{
+				result = this.value[k];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Print the values in edge index order
+	 */
+	public String toString() {
+		return Arrays.toString(this.value);
+	}
+}
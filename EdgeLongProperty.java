@@ -0,0 +1,123 @@
+package sxa190016;
+
+import sxa190016.Graph.*;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Edge Property: Store a long value for each edge of a graph in a long array indexed by
+ * 							the edge index, so that algorithms can read and update it without hashing or boxing.
+ */
+public class EdgeLongProperty {
+	/**
+	 * Index i stores the value of the edge with name i+1
+	 */
+	final long [] value;
+
+	/**
+	 * Constructor to create a property with value 0 for m edges
+	 * 
+	 * @param m		The number of edges
+	 */
+	public EdgeLongProperty(int m) {
+		this.value = new long[m];
+	}
+
+	/**
+	 * Constructor to create a property with value 0 for every edge of g
+	 * 
+	 * @param g		The graph
+	 */
+	public EdgeLongProperty(Graph g) {
+		this(g.edgeSize());
+	}
+
+	/**
+	 * Constructor to copy the values of a map into a property for the edges of g
+	 * 
+	 * @param g		The graph
+	 * @param map	The value of each edge, missing edges get 0
+	 */
+	public EdgeLongProperty(Graph g, Map<Edge, ? extends Number> map) {
+		this(g);
+		for(Map.Entry<Edge, ? extends Number> entry : map.entrySet())
+		{
+			this.value[entry.getKey().getIndex()] = entry.getValue().longValue();
+		}
+	}
+
+	/**
+	 * Value of edge e
+	 */
+	public long get(Edge e) {
+		return this.value[e.getIndex()];
+	}
+
+	/**
+	 * Value of the edge at index k
+	 */
+	public long get(int k) {
+		return this.value[k];
+	}
+
+	/**
+	 * Set the value of edge e
+	 */
+	public void put(Edge e, long v) {
+		this.value[e.getIndex()] = v;
+	}
+
+	/**
+	 * Set the value of the edge at index k
+	 */
+	public void set(int k, long v) {
+		this.value[k] = v;
+	}
+
+	/**
+	 * Add delta to the value of the edge at index k
+	 */
+	public void add(int k, long delta) {
+		this.value[k] += delta;
+	}
+
+	/**
+	 * Set the value of every edge to v
+	 */
+	public void fill(long v) {
+		Arrays.fill(this.value, v);
+	}
+
+	/**
+	 * Number of edges in the property
+	 */
+	public int size() {
+		return this.value.length;
+	}
+
+	/**
+	 * Largest value among all edges, 0 if there are no edges
+	 */
+	public long max() {
+		long result = 0;
+		for(int k=0; k<this.value.length; k++)
+		{
+			if(k==0 || this.value[k]>result)
+			{
+				result = this.value[k];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Print the values in edge index order
+	 */
+	public String toString() {
+		return Arrays.toString(this.value);
+	}
+}
@@ -42,6 +42,11 @@ public class Euler extends GraphAlgorithm<Euler.EulerVertex> {
 	 */
 	Stack<Vertex> stack;
 
+	/**
+	 * The CSR view of the graph used to scan the outgoing edges by index
+	 */
+	CSRGraph csr;
+
 	// You need this if you want to store something at each node
 	/**
 	 * @author sxa190016
@@ -85,6 +90,7 @@ public class Euler extends GraphAlgorithm<Euler.EulerVertex> {
 	public Euler(Graph g, Vertex start) {
 		super(g, new EulerVertex(null));
 		this.start = start;
+		this.csr = new CSRGraph(g);
 		tour = new LinkedList<>();
 		stack = new Stack<Vertex>();
 	}
@@ -96,7 +102,7 @@ public class Euler extends GraphAlgorithm<Euler.EulerVertex> {
 	 * @return True if unmarked vertex exists otherwise false
 	 */
 	public boolean hasUnmarkedVertices(Vertex v) {
-		return this.get(v).markedEdges < v.outDegree();
+		return this.get(v).markedEdges < this.csr.outDegree(v.getIndex());
 	}
 
 	/**
@@ -106,15 +112,11 @@ public class Euler extends GraphAlgorithm<Euler.EulerVertex> {
 	 * @return The next unmarked edge
 	 */
 	public Edge getUnmarkedEdge(Vertex v) {
-		int i = 0;
-		for (Edge e : this.g.outEdges(v)) {
-			if (i == this.get(v).markedEdges) {
-				this.get(v).markedEdges++;
-				return e;
-			}
-			i++;
+		if (!this.hasUnmarkedVertices(v)) {
+			return null;
 		}
-		return null;
+		int a = this.csr.first[v.getIndex()] + this.get(v).markedEdges++;
+		return this.csr.edges[this.csr.edge[a]];
 	}
 
 	/**
@@ -125,17 +127,17 @@ public class Euler extends GraphAlgorithm<Euler.EulerVertex> {
 	 * @return True is graph is Eulerian else false
 	 */
 	public boolean isEulerian() {
-		for (Vertex v : this.g.getVertexArray()) {
+		for (int u = 0; u < this.csr.n; u++) {
 			// Check for inDegree!=outDegree
-			if (v.outDegree() != v.inDegree()) {
-				System.out.println("Graph is not Eulerian inDegree = " + v.inDegree() + ", outDegree = " + v.outDegree()
-						+ " at Vertex " + v);
+			if (this.csr.outDegree(u) != this.csr.inDegree(u)) {
+				System.out.println("Graph is not Eulerian inDegree = " + this.csr.inDegree(u) + ", outDegree = "
+						+ this.csr.outDegree(u) + " at Vertex " + this.csr.vertex[u]);
 				return false;
 			}
 		}
 
 		// Check for strongly connected components
-		if (DFS.SCC_Vertex(g).scc > 1) {
+		if (DFS.SCC_Vertex(g, this.csr).scc > 1) {
 			System.out.println("Graph is not strongly connected");
 			return false;
 		}
@@ -148,7 +150,16 @@ public class Euler extends GraphAlgorithm<Euler.EulerVertex> {
 	 * @return The list of vertices which constitute the Euler tour
 	 */
 	public List<Vertex> findEulerTour() {
+		SolverEvents.EulerTour event = SolverEvents.ENABLED ? new SolverEvents.EulerTour() : null;
+		if (event != null) {
+			event.begin();
+		}
 		if (!isEulerian()) {
+			if (event != null && event.shouldCommit()) {
+				event.vertices = this.csr.n;
+				event.edges = this.csr.m;
+				event.commit();
+			}
 			return null;
 		}
 
@@ -171,6 +182,13 @@ public class Euler extends GraphAlgorithm<Euler.EulerVertex> {
 			// Append the elements in reverse order
 			tour.add(revList.get(i));
 		}
+		if (event != null && event.shouldCommit()) {
+			event.vertices = this.csr.n;
+			event.edges = this.csr.m;
+			event.eulerian = true;
+			event.tourLength = tour.size();
+			event.commit();
+		}
 
 		return tour;
 	}
@@ -3,10 +3,10 @@ package sxa190016;
 import sxa190016.Graph.*;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -16,12 +16,17 @@ import java.util.Set;
  * @author nxs190026
  * @version 1.0 Max Flow: Implement Pre-Flow Push algorithm to find the Max-Flow through a directed graph.
  */
-public class Flow {
+public class Flow implements MaxFlowSolver {
 	/**
 	 * The directed graph g
 	 */
 	protected Graph g;
 	
+	/**
+	 * The CSR view of g used to scan the residual arcs by index
+	 */
+	protected CSRGraph csr;
+	
 	/**
 	 * The source vertex of the pre-flow push algo
 	 */
@@ -35,17 +40,17 @@ public class Flow {
 	/**
 	 * Contains the capacity of all the edges
 	 */
-	protected HashMap<Edge, Integer> capacity;
+	protected EdgeIntProperty capacity;
 	
 	/**
 	 * Stores the flow through all the edges
 	 */
-	protected HashMap<Edge, Integer> flow;
+	protected EdgeIntProperty flow;
 	
 	/**
-	 * Queue to store all the active nodes
+	 * Stores all the active nodes in the order they are selected, FIFO by default
 	 */
-	protected Queue<Vertex> q;
+	protected ActiveVertices q;
 	
 	/**
 	 * Stores the height at each vertex
@@ -57,15 +62,123 @@ public class Flow {
 	 */
 	protected int [] excess;
 	
+	/**
+	 * Current arc of each vertex: the arcs of u before current[u] are not admissible until u is relabeled
+	 */
+	protected int [] current;
+	
 	/**
 	 * Flag to control the verbosity of the output
 	 */
 	private boolean VERBOSE;
 	
 	/**
-	 * Set to store the vertices of set S of the min cut.
+	 * Sink of the push, relabel, gap, global relabel and phase events, null to record none
+	 */
+	protected Trace trace;
+	
+	/**
+	 * Bits of the vertex indices on the "S"-side of the min cut, empty until it is found
+	 */
+	protected BitSet side;
+	
+	/**
+	 * True while running only the first phase, in which active vertices that cannot reach the sink are left alone
+	 */
+	private boolean phaseOne;
+	
+	/**
+	 * A global relabel is done after globalRelabelFreq*(n+2m) units of relabel work, 0 to disable
+	 */
+	protected double globalRelabelFreq;
+	
+	/**
+	 * Relabel work done since the last global relabel
+	 */
+	private long relabelWork;
+	
+	/**
+	 * Number of global relabels done by the last run
+	 */
+	protected int globalRelabels;
+	
+	/**
+	 * Flag to turn the gap relabeling heuristic on or off
+	 */
+	private boolean gapRelabel;
+	
+	/**
+	 * Number of gaps found by the last run
+	 */
+	private int gaps;
+	
+	/**
+	 * Flag to discharge by excess scaling: only vertices with excess above delta/2 are discharged and no push
+	 * makes an excess larger than delta, with delta halved after each phase
+	 */
+	private boolean excessScaling;
+	
+	/**
+	 * Flow value asked by a decision query, the run stops once the sink has this much excess
+	 */
+	private long target = Long.MAX_VALUE;
+	
+	/**
+	 * Excess at the vertices which could reach the sink at the last global relabel. No flow can be larger,
+	 * as the other vertices form a cut whose edges into these vertices are saturated.
+	 */
+	private long reachableExcess;
+	
+	/**
+	 * Operation counts of the last run
+	 */
+	protected SolverStats stats = new SolverStats();
+	
+	/**
+	 * Number of vertices at each height
+	 */
+	private int [] count;
+	
+	/**
+	 * First vertex of the list of vertices at each height, -1 if there is none
+	 */
+	private int [] bucket;
+	
+	/**
+	 * Next vertex in the list of vertices at the same height, -1 at the end of the list
+	 */
+	private int [] bucketNext;
+	
+	/**
+	 * Previous vertex in the list of vertices at the same height, -1 at the start of the list
+	 */
+	private int [] bucketPrev;
+	
+	/**
+	 * Largest height below n which may have vertices
+	 */
+	private int maxBucket;
+	
+	/**
+	 * True when flow holds the max flow found by the last call to preflowPush, so it can be updated incrementally
+	 */
+	private boolean solved;
+	
+	/**
+	 * Stack of the vertices left with a deficit by capacity changes, allocated on first use
+	 */
+	private int [] deficits;
+	
+	/**
+	 * Stack of the vertices whose heights have to be checked after capacity changes, and their number
+	 */
+	private int [] dirtyStack;
+	private int dirtyTop;
+	
+	/**
+	 * True for the vertices in dirtyStack
 	 */
-	private Set<Vertex> S;
+	private boolean [] dirty;
 	
 	/**
 	 * Constructor to initialize the member variables of the flow class
@@ -76,16 +189,49 @@ public class Flow {
 	 * @param capacity	hashmap containing capacity of each edge
 	 */
     public Flow(Graph g, Vertex s, Vertex t, HashMap<Edge, Integer> capacity) {
+    	this(g, s, t, new EdgeIntProperty(g, capacity));
+    }
+    
+	/**
+	 * Constructor to initialize the member variables of the flow class
+	 * 
+	 * @param g			The directed graph
+	 * @param s			The start vertex
+	 * @param t			The sink vertex
+	 * @param capacity	capacity of each edge indexed by edge index
+	 */
+    public Flow(Graph g, Vertex s, Vertex t, EdgeIntProperty capacity) {
+    	this(g, new CSRGraph(g), s, t, capacity);
+    }
+    
+	/**
+	 * Constructor sharing the CSR view of g with other flows, as it is never changed
+	 * 
+	 * @param g			The directed graph
+	 * @param csr		The CSR view of g
+	 * @param s			The start vertex
+	 * @param t			The sink vertex
+	 * @param capacity	capacity of each edge indexed by edge index
+	 */
+    public Flow(Graph g, CSRGraph csr, Vertex s, Vertex t, EdgeIntProperty capacity) {
     	this.g = g;
+    	this.csr = csr;
     	this.s = s;
     	this.t = t;
     	this.capacity = capacity;
-    	this.flow = new HashMap<Edge, Integer>();
-    	this.q = new LinkedList<Vertex>();
+    	this.flow = new EdgeIntProperty(csr.m);
+    	this.q = new ActiveVertices.Fifo(g.size());
     	this.height = new int[g.size()];
     	this.excess = new int[g.size()];
+    	this.current = new int[g.size()];
     	this.VERBOSE = false;
-    	this.S = new HashSet<Vertex>();
+    	this.side = new BitSet(g.size());
+    	this.globalRelabelFreq = 1.0;
+    	this.gapRelabel = true;
+    	this.count = new int[2*g.size()+1];
+    	this.bucket = new int[2*g.size()+1];
+    	this.bucketNext = new int[g.size()];
+    	this.bucketPrev = new int[g.size()];
     }
     
     /**
@@ -100,6 +246,133 @@ public class Flow {
     		this.VERBOSE = true;
     	}
     }
+    
+    /**
+     * Set the sink of the events of the next runs, null to record none
+     * 
+     * @param trace			The trace, a Trace.RingBuffer or a Trace.BinaryFile
+     */
+    public void setTrace(Trace trace)
+    {
+    	this.trace = trace;
+    }
+
+    /**
+     * Set how often the heights are recomputed by a global relabel
+     * 
+     * @param freq			A global relabel is done after freq*(n+2m) units of relabel work, 0 to disable
+     */
+    public void setGlobalRelabelFrequency(double freq)
+    {
+    	this.globalRelabelFreq = freq;
+    }
+    
+    /**
+     * Number of global relabels done by the last call to preflowPush
+     * 
+     * @return			The number of global relabels
+     */
+    public int globalRelabels()
+    {
+    	return this.globalRelabels;
+    }
+
+    /**
+     * Turn the gap relabeling heuristic on or off
+     * 
+     * @param gapRelabel	True to lift all vertices above an empty height to n+1 at once
+     */
+    public void setGapRelabeling(boolean gapRelabel)
+    {
+    	this.gapRelabel = gapRelabel;
+    }
+    
+    /**
+     * Number of gaps found by the last call to preflowPush
+     * 
+     * @return			The number of gaps
+     */
+    public int gaps()
+    {
+    	return this.gaps;
+    }
+
+    /**
+     * Turn excess scaling on or off. With it on the vertex with the smallest height among those with large excess is
+     * always discharged first, and the order set by setActiveVertices is not used
+     * 
+     * @param excessScaling	True to push only from vertices with excess above delta/2, halving delta after each phase
+     */
+    public void setExcessScaling(boolean excessScaling)
+    {
+    	this.excessScaling = excessScaling;
+    }
+    
+    /**
+     * Number of pushes done by the last call to preflowPush, including the ones saturating the source arcs
+     * 
+     * @return			The number of pushes
+     */
+    public long pushes()
+    {
+    	return this.stats.pushes;
+    }
+    
+    /**
+     * Number of pushes done by the last call to preflowPush which left the arc with residual capacity.
+     * Excess scaling bounds these, as each of them moves at least delta/2.
+     * 
+     * @return			The number of non-saturating pushes
+     */
+    public long nonSaturatingPushes()
+    {
+    	return this.stats.nonSaturatingPushes;
+    }
+    
+    /**
+     * Operation counts and wall time of the last call to preflowPush or updateCapacities
+     * 
+     * @return			The stats, which are not changed by later runs
+     */
+    public SolverStats stats()
+    {
+    	this.stats.globalRelabels = this.globalRelabels;
+    	this.stats.gaps = this.gaps;
+    	return this.stats;
+    }
+
+    /**
+     * Change the source and the sink, keeping the buffers for the next call to preflowPush
+     * 
+     * @param s			The new start vertex
+     * @param t			The new sink vertex
+     */
+    public void setTerminals(Vertex s, Vertex t)
+    {
+    	this.s = s;
+    	this.t = t;
+    	this.solved = false;
+    	this.side.clear();
+    }
+
+    /**
+     * Set the order in which the active vertices are selected
+     * 
+     * @param q			ActiveVertices.Fifo or ActiveVertices.HighestLabel for the vertices of g
+     */
+    public void setActiveVertices(ActiveVertices q)
+    {
+    	this.q = q;
+    }
+
+    /**
+     * Find the max-flow by push-relabel, same as preflowPush
+     * 
+     * @return			Return max flow found.
+     */
+    public int maxFlow() {
+    	return preflowPush();
+    }
 
     /**
      * Find the max-flow using FIFO queue of active vertices
@@ -107,6 +380,7 @@ public class Flow {
      * @return			Return max flow found.
      */
     public int preflowPush() {
+    	long start = System.nanoTime();
     	initialize();
     	
     	if(this.VERBOSE)
@@ -117,210 +391,1012 @@ public class Flow {
 	    	this.printArray(this.excess);
     	}
     	
-    	int i = 1;
-    	Vertex u;
-    	
-    	//While there exist exist active vertices in the queue
-    	while(this.q.size()!=0)
+    	int value = this.excessScaling ? scalingDischargeAll() : dischargeAll();
+    	this.solved = !this.phaseOne;
+    	this.stats.nanos = System.nanoTime()-start;
+    	return value;
+    }
+    
+    /**
+     * Update the max-flow after the capacities of some edges changed, starting from the last flow found by
+     * preflowPush instead of from zero. The flow of the edges whose capacity went below it is cut down and
+     * the excess and deficit this leaves are moved locally, the heights around the changed edges are lowered
+     * until they are valid again, and push-relabel is resumed from the active vertices. Global relabels are
+     * only done once the repair work reaches the usual threshold, so a few small changes touch only the part
+     * of the graph around them. The min cut is found again by minCutS and minCutT.
+     * If preflowPush has not been run, or the last run was minCutOnly, the max-flow is found from zero.
+     * 
+     * @param delta		Change of the capacity of each changed edge, the capacities given to the constructor are updated
+     * @return			The new max flow value
+     */
+    public int updateCapacities(Map<Edge, Integer> delta) {
+    	for(Map.Entry<Edge, Integer> entry: delta.entrySet())
     	{
-    		//pop an active vertex from the queue
-    		u = q.poll();
-    		
-    		//discharge the excess at the vertex
-    		discharge(u);
-    		
-    		//If it still has an excess relabel
-    		if(this.excess[u.getIndex()]>0)
+    		if(this.capacity.get(entry.getKey())+entry.getValue()<0)
     		{
-    			relabel(u);
+    			throw new IllegalArgumentException("Negative capacity for edge "+entry.getKey());
     		}
-    		
-    		if(this.VERBOSE)
+    	}
+    	if(!this.solved)
+    	{
+    		for(Map.Entry<Edge, Integer> entry: delta.entrySet())
     		{
-        		System.out.println("After "+i+++"th iteration: ");
-            	System.out.println(this.q);
-            	this.printArray(this.height);
-            	this.printArray(this.excess);
+    			this.capacity.add(entry.getKey().getIndex(), entry.getValue());
     		}
+    		return preflowPush();
     	}
-    	
-	//Return the excess at sink
-	return this.excess[this.t.getIndex()];
-    }
-    
-    /**
-     * Initialize flow and excess to 0, push flow from source and label the height of each vertex
-     */
-    private void initialize()
-    {
-    	//Initialize flow to 0
-    	for(Edge e: this.g.getEdgeArray())
+    	long start = System.nanoTime();
+    	if(this.deficits==null)
     	{
-    		this.flow.put(e, 0);
+    		this.deficits = new int[this.csr.n];
+    		this.dirtyStack = new int[this.csr.n];
+    		this.dirty = new boolean[this.csr.n];
     	}
+    	this.side.clear();
+    	this.relabelWork = 0;
+    	this.globalRelabels = 0;
+    	this.gaps = 0;
+    	this.stats = new SolverStats();
+    	this.dirtyTop = 0;
+    	int si = this.s.getIndex();
+    	int ti = this.t.getIndex();
     	
-    	//Initialize excess to 0
-    	for(int i=0; i<this.excess.length; i++)
+    	//Apply the changes, cutting the flow of an edge down to its new capacity. The tail keeps the flow
+    	//it can no longer send as excess and the head is left with a deficit. The tails are made active only
+    	//once all the changes are applied, as a later change or deficit can take their excess away again
+    	int top = 0;
+    	for(Map.Entry<Edge, Integer> entry: delta.entrySet())
     	{
-    		this.excess[i] = 0;
+    		int k = entry.getKey().getIndex();
+    		this.capacity.add(k, entry.getValue());
+    		int a = this.csr.arcOf[k];
+    		int u = this.csr.tail[a];
+    		int v = this.csr.head[a];
+    		if(entry.getValue()>0)
+    		{
+    			markDirty(u);
+    		}
+    		int over = this.flow.get(k)-this.capacity.get(k);
+    		if(over>0)
+    		{
+    			boolean balanced = this.excess[v]>=0;
+    			this.push(this.csr.rev[a], over);
+    			if(balanced && this.excess[v]<0 && v!=si && v!=ti)
+    			{
+    				this.deficits[top++] = v;
+    			}
+    		}
     	}
     	
-    	//Label the height of each vertex
-    	initHeight();
+    	//Move each deficit forward by cutting the flow leaving the vertex, until it reaches the sink or the source.
+    	//A vertex with a deficit sends out more than it receives, so it has an outgoing edge with flow
+    	while(top>0)
+    	{
+    		int v = this.deficits[--top];
+    		for(int a=this.csr.first[v]; a<this.csr.mid[v] && this.excess[v]<0; a++)
+    		{
+    			int f = this.flow.get(this.csr.edge[a]);
+    			if(f>0)
+    			{
+    				int w = this.csr.head[a];
+    				boolean balanced = this.excess[w]>=0;
+    				this.push(this.csr.rev[a], Math.min(f, -this.excess[v]));
+    				if(balanced && this.excess[w]<0 && w!=si && w!=ti)
+    				{
+    					this.deficits[top++] = w;
+    				}
+    			}
+    		}
+    		
+    		//The arcs whose flow was cut have residual capacity again
+    		markDirty(v);
+    	}
     	
-    	//Label source as the highest vertex
-    	this.height[this.s.getIndex()] = this.g.size();
+    	//Lower the heights which the new residual arcs made invalid
+    	repairHeights();
     	
-    	//Push the flow along all the outgoing edges of g
-    	for(Edge e: this.g.outEdges(this.s))
+    	//Make active the tails which kept an excess
+    	for(Edge e: delta.keySet())
     	{
-    		this.flow.replace(e, this.capacity.get(e));
-    		this.excess[s.getIndex()] -= this.capacity.get(e);
-    		Vertex v = e.toVertex();
-    		this.excess[v.getIndex()] += this.capacity.get(e);
-    		if(this.capacity.get(e)>0 && !v.equals(this.s) && !v.equals(this.t))
+    		int u = e.fromVertex().getIndex();
+    		if(u!=si && u!=ti && this.excess[u]>0)
     		{
-        		this.q.add(e.otherEnd(this.s));
+    			this.q.add(u, this.height[u]);
     		}
     	}
+    	
+    	if(this.VERBOSE)
+    	{
+	    	System.out.println("After updating capacities: ");
+	    	System.out.println(this.q);
+	    	this.printArray(this.height);
+	    	this.printArray(this.excess);
+    	}
+    	int value = dischargeAll();
+    	this.stats.nanos = System.nanoTime()-start;
+    	return value;
     }
     
     /**
-     * Calculate and initialize the height of each vertex from sink
+     * Find the min cut without computing a max flow. Only the first phase of preflow push is run: it stops
+     * once no active vertex can reach the sink, and the excess left at the other vertices is not returned
+     * to the source. The "S"-side of the cut is then given by minCutS and the "T"-side by minCutT.
+     * flow(e) gives a preflow afterwards, not a flow.
+     * 
+     * @return			The capacity of the min cut, which is also the max flow value
      */
-    private void initHeight()
-    {
-    	//Reverse the graph
-    	this.g.reverseGraph();
+    public int minCutOnly() {
+    	this.phaseOne = true;
+    	int value = preflowPush();
+    	this.phaseOne = false;
     	
-    	//Do BFS
-    	Queue<Vertex> queue = new LinkedList<Vertex>();
-    	queue.add(this.t);
-    	while(!queue.isEmpty())
+    	cutFromSink();
+    	return value;
+    }
+    
+    /**
+     * Decide whether the max flow is at least K without always computing it. The first phase of preflow push
+     * is run and stops as soon as the sink has K units of excess, or as soon as a global relabel finds that
+     * the excess which can still reach the sink is less than K. The answer comes with a certificate: if it is
+     * true, flow(e) is a flow of value exactly K; if it is false, minCutS and minCutT give a cut of capacity
+     * less than K. Global relabels should be on for the second case to stop early.
+     * 
+     * @param K			The flow value asked for
+     * @return			true if the max flow is at least K
+     */
+    public boolean atLeast(int K) {
+    	this.phaseOne = true;
+    	this.target = Math.max(K, 0);
+    	try
     	{
-    		for(int k=0; k<queue.size(); k++)
-    		{
-    			Vertex u = queue.poll();
-    			for(Edge e: this.g.outEdges(u))
-    			{
-    				Vertex v = e.otherEnd(u);
-    				if(!v.equals(this.t) && this.height[v.getIndex()]==0)
-    				{
-    					this.height[v.getIndex()] = this.height[u.getIndex()] + 1;
-    					queue.add(v);
-    				}
-    			}
-    		}
+    		preflowPush();
     	}
-    	
-    	//Reverse the graph again
-    	this.g.reverseGraph();
+    	finally
+    	{
+    		this.phaseOne = false;
+    		this.target = Long.MAX_VALUE;
+    	}
+    	return certify(K);
     }
     
-    //Print the array in a readable format
-    protected void printArray(int [] arr)
+    /**
+     * Turn the preflow left by a run into the certificate of atLeast
+     * 
+     * @param K			The flow value asked for
+     * @return			true if the sink has K units of excess
+     */
+    protected boolean certify(int K)
     {
-    	for(int i=0; i<arr.length; i++)
+    	this.solved = false;
+    	this.side.clear();
+    	if(this.excess[this.t.getIndex()]>=K)
     	{
-    		System.out.print(arr[i]+" ");
+    		cancelSurplus(Math.max(K, 0));
+    		return true;
     	}
-    	System.out.println();
+    	cutFromSink();
+    	return false;
     }
     
     /**
-     * Discharge the excess flow at vertex u
+     * Return the surplus of the preflow to the source along the edges carrying flow, so that every vertex
+     * other than the source and the sink has no excess and the sink has exactly K. A vertex with excess
+     * has more flow coming in than going out, so its in-edges always carry enough to take it back.
      * 
-     * @param u			The vertex from which excess flow has to be discharged
+     * @param K			The flow value to keep at the sink, at most its excess
      */
-    protected void discharge(Vertex u)
+    private void cancelSurplus(int K)
     {
-    	//Discharge along each outgoing edges till there is excess
-    	for(Edge e: this.g.outEdges(u))
+    	int si = this.s.getIndex();
+    	int ti = this.t.getIndex();
+    	int [] stack = new int[this.csr.n];
+    	int top = 0;
+    	for(int u=0; u<this.csr.n; u++)
     	{
-    		Vertex v = e.toVertex();
-    		
-    		//If height of u is height of v+1
-    		if(this.height[u.getIndex()] == this.height[v.getIndex()]+1)
+    		if(u!=si && surplus(u, K)>0)
     		{
-    			int delta = 0;
-    			
-    			//delta is the min of excess and residual capacity of the edges
-				delta = Math.min(this.excess[u.getIndex()], this.capacity(e)-this.flow(e));
-				this.flow.replace(e, this.flow(e)+delta);
-    			if(delta>0)
-    			{
-    				this.excess[u.getIndex()] -= delta;
-        			this.excess[v.getIndex()] += delta;
-        			
-        			//Add to active list if it has excess
-        			if(this.excess[v.getIndex()] == delta && !v.equals(this.s) && !v.equals(this.t))	//Change this to check without searching the list
-        			{
-        				this.q.add(v);
-        			}
-        			if(this.excess[u.getIndex()]==0)
-        			{
-        				return;
-        			}
-    			}
+    			stack[top++] = u;
     		}
     	}
-    	
-    	//Same of incoming edges
-    	for(Edge e: this.g.inEdges(u))
+    	while(top>0)
     	{
-    		Vertex v = e.fromVertex();
-    		if(this.height[u.getIndex()] == this.height[v.getIndex()]+1)
+    		int v = stack[--top];
+    		
+    		//The reverse arcs of v carry the flow of its in-edges back to their tails
+    		for(int a=this.csr.mid[v]; a<this.csr.first[v+1] && surplus(v, K)>0; a++)
     		{
-    			int delta = 0;
-    			delta = Math.min(this.excess[u.getIndex()], this.flow(e));
-    			this.flow.replace(e, this.flow(e)-delta);
-    			if(delta>0)
+    			int w = this.csr.head[a];
+    			int r = this.residual(a);
+    			if(r>0)
     			{
-    				this.excess[u.getIndex()] -= delta;
-        			this.excess[v.getIndex()] += delta;
-        			if(this.excess[v.getIndex()] == delta && !v.equals(this.s) && !v.equals(this.t))				//Change this to check without searching the list
-        			{
-        				this.q.add(v);
-        			}
-        			if(this.excess[u.getIndex()]==0)
-        			{
-        				return;
-        			}
+    				boolean had = w==si || surplus(w, K)>0;
+    				this.push(a, Math.min(r, surplus(v, K)));
+    				if(!had && surplus(w, K)>0)
+    				{
+    					stack[top++] = w;
+    				}
     			}
     		}
     	}
+    	this.q.clear();
     }
     
     /**
-     * Relabel vertex if it still has excess after discharge
-     * 
+     * Excess of u beyond what it should keep: K at the sink and nothing elsewhere
+     */
+    private int surplus(int u, int K)
+    {
+    	return u==this.t.getIndex() ? this.excess[u]-K : this.excess[u];
+    }
+    
+    /**
+     * Whether a decision query is settled: the sink has the target, or the excess which can still reach it is short
+     */
+    private boolean decided()
+    {
+    	return this.target<Long.MAX_VALUE
+    			&& (this.excess[this.t.getIndex()]>=this.target || this.reachableExcess<this.target);
+    }
+    
+    /**
+     * Put in side the vertices which cannot reach the sink in the residual graph. After the first phase of
+     * preflow push, or once the excess which can reach the sink is short, this is the "S"-side of a cut
+     * whose edges are all saturated.
+     */
+    protected void cutFromSink()
+    {
+    	//The "T"-side is the set of vertices which can still reach the sink, do BFS backwards along the residual arcs
+    	int ti = this.t.getIndex();
+    	boolean [] seen = new boolean[this.csr.n];
+    	int [] queue = new int[this.csr.n];
+    	int head = 0, tail = 0;
+    	seen[ti] = true;
+    	queue[tail++] = ti;
+    	while(head<tail)
+    	{
+    		int u = queue[head++];
+    		for(int a=this.csr.first[u]; a<this.csr.first[u+1]; a++)
+    		{
+    			int v = this.csr.head[a];
+    			if(!seen[v] && this.residual(this.csr.rev[a])>0)
+    			{
+    				seen[v] = true;
+    				queue[tail++] = v;
+    			}
+    		}
+    	}
+    	this.side.clear();
+    	for(int u=0; u<this.csr.n; u++)
+    	{
+    		if(!seen[u])
+    		{
+    			this.side.set(u);
+    		}
+    	}
+    }
+    
+    /**
+     * Discharge and relabel the active vertices until none is left
+     * 
+     * @return			The excess at the sink, which is the max flow value
+     */
+    private int dischargeAll()
+    {
+    	Vertex u;
+    	
+    	//While there exist exist active vertices in the queue and a decision query is not settled
+    	while(!this.q.isEmpty() && !decided())
+    	{
+    		//pop an active vertex from the queue
+    		u = this.csr.vertex[this.q.poll()];
+    		this.stats.queuePolls++;
+    		
+    		//In the first phase a vertex of height n or more cannot reach the sink, so its excess is left there
+    		if(this.phaseOne && this.height[u.getIndex()]>=this.csr.n)
+    		{
+    			continue;
+    		}
+    		
+    		//discharge the excess at the vertex
+    		discharge(u);
+    		this.stats.discharges++;
+    		
+    		//If it still has an excess relabel
+    		if(this.excess[u.getIndex()]>0)
+    		{
+    			relabel(u);
+    		}
+    		
+    		//Recompute exact heights once enough relabel work is done
+    		if(this.globalRelabelFreq>0 && this.relabelWork>=this.globalRelabelFreq*(this.csr.n+this.csr.arcSize()))
+    		{
+    			globalRelabel();
+    		}
+    	}
+    	
+	//Return the excess at sink
+	return this.excess[this.t.getIndex()];
+    }
+    
+    /**
+     * Discharge the active vertices by excess scaling. delta starts at the smallest power of two at least the largest
+     * excess, and each phase discharges only the vertices with excess above delta/2, without making any excess larger
+     * than delta. Once no such vertex is left delta is halved. With wide capacity ranges this avoids pushing small
+     * amounts back and forth.
+     * 
+     * @return			The excess at the sink, which is the max flow value
+     */
+    private int scalingDischargeAll()
+    {
+    	int si = this.s.getIndex();
+    	int ti = this.t.getIndex();
+    	long maxExcess = 1;
+    	for(int u=0; u<this.csr.n; u++)
+    	{
+    		if(u!=si && u!=ti)
+    		{
+    			maxExcess = Math.max(maxExcess, this.excess[u]);
+    		}
+    	}
+    	long delta = 1;
+    	while(delta<maxExcess)
+    	{
+    		delta *= 2;
+    	}
+    	
+    	//A vertex waiting for a lower vertex to make room relies on the lower one being taken first
+    	ActiveVertices order = this.q;
+    	this.q = new ActiveVertices.LowestLabel(this.csr.n);
+    	try
+    	{
+    		for(int phase=1; delta>=1; delta/=2, phase++)
+    		{
+    			//Only the vertices with large excess are active in this phase
+    			this.q.clear();
+    			for(int u=0; u<this.csr.n; u++)
+    			{
+    				if(u!=si && u!=ti && 2L*this.excess[u]>delta)
+    				{
+    					this.q.add(u, this.height[u]);
+    				}
+    			}
+    			while(!this.q.isEmpty())
+    			{
+    				if(decided())
+    				{
+    					return this.excess[ti];
+    				}
+    				int ui = this.q.poll();
+    				this.stats.queuePolls++;
+    			
+    				//Vertices whose excess became small, and in the first phase those which cannot reach the sink, are left
+    				if(2L*this.excess[ui]<=delta || (this.phaseOne && this.height[ui]>=this.csr.n))
+    				{
+    					continue;
+    				}
+    				scalingDischarge(ui, delta);
+    				this.stats.discharges++;
+    			
+    				//Relabel once the arcs are used up, else wait while a lower vertex makes room
+    				if(this.excess[ui]>0 && this.current[ui]==this.csr.first[ui+1])
+    				{
+    					relabel(this.csr.vertex[ui]);
+    				}
+    				else if(2L*this.excess[ui]>delta)
+    				{
+    					this.q.add(ui, this.height[ui]);
+    				}
+    			
+    				//Recompute exact heights once enough relabel work is done
+    				if(this.globalRelabelFreq>0 && this.relabelWork>=this.globalRelabelFreq*(this.csr.n+this.csr.arcSize()))
+    				{
+    					globalRelabel();
+    				}
+    			}
+    			this.stats.phases++;
+    			if(Trace.ENABLED && this.trace!=null)
+    			{
+    				this.trace.record(Trace.PHASE, phase, delta);
+    			}
+    		}
+    	}
+    	finally
+    	{
+    		this.q = order;
+    	}
+    	return this.excess[ti];
+    }
+    
+    /**
+     * Push the excess at vertex u along its admissible arcs from the current arc, sending no more than delta minus
+     * the excess of the head. Stops when the excess of u is no longer above delta/2, when the head of an admissible
+     * arc cannot take more, or when the arcs are used up.
+     * 
+     * @param ui		Index of the vertex
+     * @param delta		The scaling threshold of the phase
+     */
+    private void scalingDischarge(int ui, long delta)
+    {
+    	int si = this.s.getIndex();
+    	int ti = this.t.getIndex();
+    	for(int a=this.current[ui]; a<this.csr.first[ui+1]; a++)
+    	{
+    		int v = this.csr.head[a];
+    		int r = this.residual(a);
+    		if(r>0 && this.height[ui]==this.height[v]+1)
+    		{
+    			long room = v==si || v==ti ? Long.MAX_VALUE : delta-this.excess[v];
+    			int amount = (int) Math.min(Math.min(this.excess[ui], r), room);
+    			if(amount>0)
+    			{
+    				boolean large = 2L*this.excess[v]>delta;
+    				this.push(a, amount);
+    				if(!large && 2L*this.excess[v]>delta && v!=si && v!=ti)
+    				{
+    					this.q.add(v, this.height[v]);
+    				}
+    			}
+    			
+    			//Keep the arc while it has residual capacity, it is admissible until u is relabeled
+    			if(this.residual(a)>0 || 2L*this.excess[ui]<=delta)
+    			{
+    				this.current[ui] = a;
+    				return;
+    			}
+    		}
+    	}
+    	this.current[ui] = this.csr.first[ui+1];
+    }
+    
+    /**
+     * Initialize flow and excess to 0, push flow from source and label the height of each vertex
+     */
+    private void initialize()
+    {
+    	SolverEvents.Initialize event = SolverEvents.ENABLED ? new SolverEvents.Initialize() : null;
+    	if(event!=null)
+    	{
+    		event.begin();
+    	}
+    	
+    	//Initialize flow to 0
+    	this.flow.fill(0);
+    	
+    	//Initialize excess to 0 and empty the queue and the min cut
+    	this.q.clear();
+    	this.side.clear();
+    	for(int i=0; i<this.excess.length; i++)
+    	{
+    		this.excess[i] = 0;
+    	}
+    	
+    	//Label the height of each vertex
+    	Arrays.fill(this.height, 0);
+    	initHeight();
+    	this.relabelWork = 0;
+    	this.globalRelabels = 0;
+    	this.gaps = 0;
+    	this.stats = new SolverStats();
+    	this.reachableExcess = Long.MAX_VALUE;
+    	
+    	//Label source as the highest vertex
+    	this.height[this.s.getIndex()] = this.g.size();
+    	buildBuckets();
+    	resetCurrentArcs();
+    	
+    	//Push the flow along all the outgoing edges of g
+    	int si = this.s.getIndex();
+    	int active = 0;
+    	for(int a=this.csr.first[si]; a<this.csr.mid[si]; a++)
+    	{
+    		int c = this.residual(a);
+    		if(c==0)
+    		{
+    			continue;
+    		}
+    		this.push(a, c);
+    		int v = this.csr.head[a];
+    		if(v!=si && v!=this.t.getIndex())
+    		{
+    			this.q.add(v, this.height[v]);
+    			active++;
+    		}
+    	}
+    	if(event!=null && event.shouldCommit())
+    	{
+    		event.vertices = this.csr.n;
+    		event.edges = this.csr.m;
+    		event.active = active;
+    		event.sourceFlow = -(long) this.excess[si];
+    		event.commit();
+    	}
+    }
+    
+    /**
+     * Calculate and initialize the height of each vertex from sink, n for the vertices which cannot reach it
+     */
+    private void initHeight()
+    {
+    	SolverEvents.InitHeight event = SolverEvents.ENABLED ? new SolverEvents.InitHeight() : null;
+    	if(event!=null)
+    	{
+    		event.begin();
+    	}
+    	
+    	//Do BFS along the incoming edges
+    	int [] queue = new int[this.csr.n];
+    	int head = 0, tail = 0;
+    	int ti = this.t.getIndex();
+    	queue[tail++] = ti;
+    	while(head<tail)
+    	{
+    		int u = queue[head++];
+    		for(int a=this.csr.mid[u]; a<this.csr.first[u+1]; a++)
+    		{
+    			int v = this.csr.head[a];
+    			if(v!=ti && this.height[v]==0)
+    			{
+    				this.height[v] = this.height[u] + 1;
+    				queue[tail++] = v;
+    			}
+    		}
+    	}
+
+    	//The vertices which cannot reach the sink start at n, as height 0 would break the labeling the gap check needs
+    	for(int u=0; u<this.csr.n; u++)
+    	{
+    		if(u!=ti && this.height[u]==0)
+    		{
+    			this.height[u] = this.csr.n;
+    		}
+    	}
+    	if(event!=null && event.shouldCommit())
+    	{
+    		event.vertices = this.csr.n;
+    		event.edges = this.csr.m;
+    		event.labeled = tail;
+    		event.commit();
+    	}
+    }
+    
+    /**
+     * Global relabel: set the height of each vertex to its distance to the sink in the residual graph,
+     * or n plus its distance to the source if the sink cannot be reached
+     */
+    protected void globalRelabel()
+    {
+    	int n = this.csr.n;
+    	int si = this.s.getIndex();
+    	int ti = this.t.getIndex();
+    	Arrays.fill(this.height, -1);
+    	int [] queue = new int[n];
+    	int head = 0, tail = 0;
+    	
+    	//Do BFS backwards along the residual arcs, first from the sink and then from the source
+    	this.height[si] = n;
+    	this.height[ti] = 0;
+    	queue[tail++] = ti;
+    	for(int phase=0; phase<2; phase++)
+    	{
+    		if(phase==1)
+    		{
+    			//The queue now holds the vertices which reach the sink
+    			this.reachableExcess = 0;
+    			for(int i=0; i<tail; i++)
+    			{
+    				this.reachableExcess += this.excess[queue[i]];
+    			}
+    			queue[tail++] = si;
+    		}
+    		while(head<tail)
+    		{
+    			int u = queue[head++];
+    			for(int a=this.csr.first[u]; a<this.csr.first[u+1]; a++)
+    			{
+    				int v = this.csr.head[a];
+    				if(this.height[v]<0 && this.residual(this.csr.rev[a])>0)
+    				{
+    					this.height[v] = this.height[u] + 1;
+    					queue[tail++] = v;
+    				}
+    			}
+    		}
+    	}
+    	
+    	//Vertices which reach neither the sink nor the source have no excess to move
+    	for(int u=0; u<n; u++)
+    	{
+    		if(this.height[u]<0)
+    		{
+    			this.height[u] = 2*n-1;
+    		}
+    	}
+    	buildBuckets();
+    	resetCurrentArcs();
+    	this.relabelWork = 0;
+    	this.globalRelabels++;
+    	
+    	//Add the active vertices again with their new heights
+    	this.q.clear();
+    	int active = 0;
+    	for(int u=0; u<n; u++)
+    	{
+    		if(this.excess[u]>0 && u!=si && u!=ti)
+    		{
+    			this.q.add(u, this.height[u]);
+    			active++;
+    		}
+    	}
+    	if(Trace.ENABLED && this.trace!=null)
+    	{
+    		this.trace.record(Trace.GLOBAL_RELABEL, this.globalRelabels, active);
+    	}
+    }
+    
+    /**
+     * Put every vertex in the list of vertices at its height
+     */
+    private void buildBuckets()
+    {
+    	Arrays.fill(this.count, 0);
+    	Arrays.fill(this.bucket, -1);
+    	this.maxBucket = 0;
+    	for(int u=0; u<this.csr.n; u++)
+    	{
+    		bucketInsert(u, this.height[u]);
+    	}
+    }
+    
+    /**
+     * Set the height of vertex u and add it to the list of vertices at that height
+     * 
+     * @param u			Index of the vertex
+     * @param h			The new height
+     */
+    private void bucketInsert(int u, int h)
+    {
+    	this.height[u] = h;
+    	this.bucketPrev[u] = -1;
+    	this.bucketNext[u] = this.bucket[h];
+    	if(this.bucket[h]>=0)
+    	{
+    		this.bucketPrev[this.bucket[h]] = u;
+    	}
+    	this.bucket[h] = u;
+    	this.count[h]++;
+    	if(h<this.csr.n && h>this.maxBucket)
+    	{
+    		this.maxBucket = h;
+    	}
+    }
+    
+    /**
+     * Remove vertex u from the list of vertices at its height
+     * 
+     * @param u			Index of the vertex
+     */
+    private void bucketRemove(int u)
+    {
+    	int h = this.height[u];
+    	if(this.bucketPrev[u]>=0)
+    	{
+    		this.bucketNext[this.bucketPrev[u]] = this.bucketNext[u];
+    	}
+    	else
+    	{
+    		this.bucket[h] = this.bucketNext[u];
+    	}
+    	if(this.bucketNext[u]>=0)
+    	{
+    		this.bucketPrev[this.bucketNext[u]] = this.bucketPrev[u];
+    	}
+    	this.count[h]--;
+    }
+    
+    /**
+     * Gap relabel: no vertex is left at height h, so the vertices above it up to n-1 cannot
+     * reach the sink any more. Lift all of them to n+1.
+     * 
+     * @param h			The empty height
+     */
+    private void gap(int h)
+    {
+    	int top = Math.min(this.maxBucket, this.csr.n-1);
+    	for(int k=h+1; k<=top; k++)
+    	{
+    		while(this.bucket[k]>=0)
+    		{
+    			int v = this.bucket[k];
+    			bucketRemove(v);
+    			bucketInsert(v, this.csr.n+1);
+    			this.current[v] = this.csr.first[v];
+    		}
+    	}
+    	this.maxBucket = h-1;
+    	this.gaps++;
+    	if(Trace.ENABLED && this.trace!=null)
+    	{
+    		this.trace.record(Trace.GAP, h, this.gaps);
+    	}
+    }
+    
+    /**
+     * Add vertex u to the vertices whose heights have to be checked, if it is not there
+     * 
+     * @param u			Index of the vertex
+     */
+    private void markDirty(int u)
+    {
+    	if(!this.dirty[u])
+    	{
+    		this.dirty[u] = true;
+    		this.dirtyStack[this.dirtyTop++] = u;
+    	}
+    }
+    
+    /**
+     * Make the heights valid again after capacity changes, so that height[u]<=height[v]+1 for every residual arc u->v.
+     * Heights only go down: a dirty vertex is lowered to one more than the lowest vertex it has a residual arc to, and
+     * the vertices with residual arcs into a lowered vertex are lowered in turn. The vertices are lowered in order of
+     * their new heights, like a BFS started from the dirty vertices, so each is lowered at most once. The source keeps
+     * height n, instead its arcs to vertices which are too low are saturated. The current arcs of the vertices around
+     * a lowered vertex are reset.
+     */
+    private void repairHeights()
+    {
+    	int si = this.s.getIndex();
+    	int ti = this.t.getIndex();
+    	
+    	//Find the new height of each dirty vertex, and sort them by it
+    	long [] seeds = new long[this.dirtyTop];
+    	int seedCount = 0;
+    	while(this.dirtyTop>0)
+    	{
+    		int u = this.dirtyStack[--this.dirtyTop];
+    		this.dirty[u] = false;
+    		this.current[u] = this.csr.first[u];
+    		if(u==si)
+    		{
+    			for(int a=this.csr.first[u]; a<this.csr.first[u+1]; a++)
+    			{
+    				saturateFromSource(a);
+    			}
+    		}
+    		else if(u!=ti)
+    		{
+    			int minHeight = Integer.MAX_VALUE;
+    			for(int a=this.csr.first[u]; a<this.csr.first[u+1]; a++)
+    			{
+    				if(this.residual(a)>0)
+    				{
+    					minHeight = Math.min(minHeight, this.height[this.csr.head[a]]+1);
+    				}
+    			}
+    			if(minHeight<this.height[u])
+    			{
+    				seeds[seedCount++] = ((long) minHeight<<32) | u;
+    			}
+    		}
+    	}
+    	Arrays.sort(seeds, 0, seedCount);
+    	
+    	//Lower the vertices taking the lowest new height first, from the sorted seeds or the FIFO queue of lowered neighbors
+    	int [] queue = this.deficits;
+    	int head = 0, tail = 0, next = 0;
+    	while(next<seedCount || head<tail)
+    	{
+    		int u, h;
+    		if(head<tail && (next==seedCount || this.height[queue[head]]<=(int) (seeds[next]>>>32)))
+    		{
+    			//Vertices in the queue already have their new height, only their neighbors are left to check
+    			u = queue[head++];
+    			h = this.height[u];
+    		}
+    		else
+    		{
+    			u = (int) seeds[next];
+    			h = (int) (seeds[next++]>>>32);
+    			if(h>=this.height[u])
+    			{
+    				continue;
+    			}
+    			lower(u, h);
+    		}
+    		
+    		//Arcs into u may now be too steep, or admissible behind the current arc of their tail
+    		for(int a=this.csr.first[u]; a<this.csr.first[u+1]; a++)
+    		{
+    			int w = this.csr.head[a];
+    			int b = this.csr.rev[a];
+    			if(this.residual(b)>0)
+    			{
+    				if(w==si)
+    				{
+    					saturateFromSource(b);
+    				}
+    				else if(this.height[w]>h+1)
+    				{
+    					lower(w, h+1);
+    					queue[tail++] = w;
+    				}
+    				else if(this.height[w]==h+1)
+    				{
+    					this.current[w] = this.csr.first[w];
+    				}
+    			}
+    		}
+    	}
+    }
+    
+    /**
+     * Lower vertex u to height h during the repair of the heights
+     * 
+     * @param u			Index of the vertex
+     * @param h			The new height
+     */
+    private void lower(int u, int h)
+    {
+    	bucketRemove(u);
+    	bucketInsert(u, h);
+    	this.current[u] = this.csr.first[u];
+    	this.relabelWork += this.csr.first[u+1]-this.csr.first[u]+1;
+    }
+    
+    /**
+     * Saturate arc a leaving the source if it is too steep for the height of its head
+     * 
+     * @param a			Index of an arc of the source
+     */
+    private void saturateFromSource(int a)
+    {
+    	int v = this.csr.head[a];
+    	int c = this.residual(a);
+    	if(c>0 && this.height[this.csr.tail[a]]>this.height[v]+1)
+    	{
+    		this.push(a, c);
+    		if(v!=this.t.getIndex() && this.excess[v]>0)
+    		{
+    			this.q.add(v, this.height[v]);
+    		}
+    	}
+    }
+    
+    /**
+     * Set the current arc of every vertex to its first arc
+     */
+    protected void resetCurrentArcs()
+    {
+    	for(int u=0; u<this.csr.n; u++)
+    	{
+    		this.current[u] = this.csr.first[u];
+    	}
+    }
+    
+    //Print the array in a readable format
+    protected void printArray(int [] arr)
+    {
+    	for(int i=0; i<arr.length; i++)
+    	{
+    		System.out.print(arr[i]+" ");
+    	}
+    	System.out.println();
+    }
+    
+    /**
+     * Discharge the excess flow at vertex u
+     * 
+     * @param u			The vertex from which excess flow has to be discharged
+     */
+    protected void discharge(Vertex u)
+    {
+    	int ui = u.getIndex();
+    	
+    	//Discharge along the outgoing edges and then the reverse of incoming edges till there is excess,
+    	//starting from the current arc
+    	for(int a=this.current[ui]; a<this.csr.first[ui+1]; a++)
+    	{
+    		int v = this.csr.head[a];
+    		
+    		//If height of u is height of v+1
+    		if(this.height[ui] == this.height[v]+1)
+    		{
+    			//delta is the min of excess and residual capacity of the arc
+    			int delta = Math.min(this.excess[ui], this.residual(a));
+    			if(delta>0)
+    			{
+    				this.push(a, delta);
+    				
+    				//Add to active list if it has excess
+    				if(this.excess[v] == delta && v!=this.s.getIndex() && v!=this.t.getIndex())
+    				{
+    					this.q.add(v, this.height[v]);
+    				}
+    				if(this.excess[ui]==0)
+    				{
+    					this.current[ui] = a;
+    					return;
+    				}
+    			}
+    		}
+    	}
+    	this.current[ui] = this.csr.first[ui+1];
+    }
+    
+    /**
+     * Relabel vertex if it still has excess after discharge
+     * 
      * @param u			The vertex to be relabeled
      */
     protected void relabel(Vertex u)
     {
+    	int ui = u.getIndex();
     	int minHeight = Integer.MAX_VALUE;
     	
-    	//Find the min height among all outgoing neighbors
-    	for(Edge e: this.g.outEdges(u))
+    	//Find the min height among all neighbors reachable by a residual arc
+    	for(int a=this.csr.first[ui]; a<this.csr.first[ui+1]; a++)
     	{
-    		if(this.capacity(e)>this.flow(e))
-			{
-				minHeight = Math.min(minHeight, this.height[e.otherEnd(u).getIndex()]);
-			}
+    		if(this.residual(a)>0)
+    		{
+    			minHeight = Math.min(minHeight, this.height[this.csr.head[a]]);
+    		}
     	}
     	
-    	//Find the min height among all incoming neighbors
-    	for(Edge e:this.g.inEdges(u))
+    	//Set vertex height to minHeight + 1
+    	int oldHeight = this.height[ui];
+    	bucketRemove(ui);
+    	if(this.gapRelabel && this.count[oldHeight]==0 && oldHeight<this.csr.n)
     	{
-    		if(this.flow(e)>0)
-			{
-				minHeight = Math.min(minHeight, this.height[e.otherEnd(u).getIndex()]);
-			}
+    		//u was the last vertex at its height, so it is cut off from the sink along with all vertices above it
+    		bucketInsert(ui, Math.max(this.csr.n, Math.min(minHeight, 2*this.csr.n-2))+1);
+    		gap(oldHeight);
+    	}
+    	else
+    	{
+    		bucketInsert(ui, Math.min(minHeight, 2*this.csr.n-2)+1);
+    	}
+    	this.current[ui] = this.csr.first[ui];
+    	this.relabelWork += this.csr.first[ui+1]-this.csr.first[ui]+1;
+    	this.q.add(ui, this.height[ui]);
+    	this.stats.relabels++;
+    	if(Trace.ENABLED && this.trace!=null)
+    	{
+    		this.trace.record(Trace.RELABEL, u.getName(), this.height[ui]);
+    	}
+    }
+    
+    /**
+     * Residual capacity of arc a
+     * 
+     * @param a			Index of the arc in the CSR graph
+     * @return			capacity-flow for a forward arc, flow for a reverse arc
+     */
+    protected int residual(int a)
+    {
+    	int k = this.csr.edge[a];
+    	return this.csr.forward[a] ? this.capacity.get(k)-this.flow.get(k) : this.flow.get(k);
+    }
+    
+    /**
+     * Push delta units of flow along arc a and update the excess at its ends
+     * 
+     * @param a			Index of the arc in the CSR graph
+     * @param delta		Amount of flow to be pushed
+     */
+    protected void push(int a, int delta)
+    {
+    	this.stats.pushes++;
+    	if(delta<this.residual(a))
+    	{
+    		this.stats.nonSaturatingPushes++;
+    	}
+    	this.flow.add(this.csr.edge[a], this.csr.forward[a] ? delta : -delta);
+    	this.excess[this.csr.tail[a]] -= delta;
+    	this.excess[this.csr.head[a]] += delta;
+    	if(Trace.ENABLED && this.trace!=null)
+    	{
+    		int name = this.csr.edge[a]+1;
+    		this.trace.record(Trace.PUSH, this.csr.forward[a] ? name : -name, delta);
     	}
-    	
-    	//Set vertex height to minHeight + 1
-    	this.height[u.getIndex()]=minHeight+1;
-    	this.q.add(u);
     }
 
     /**
@@ -342,6 +1418,71 @@ public class Flow {
 	return this.capacity.get(e);
     }
 
+    /**
+     * Split the flow found by the last run into paths from the source to the sink and cycles, one at a time.
+     * The paths of a preflow end at the vertices which kept excess.
+     * 
+     * @return			An iterator over the paths and cycles, whose stream method gives them as a Stream
+     */
+    public FlowDecomposition decompose() {
+    	return new FlowDecomposition(this.csr, this.flow);
+    }
+    
+    /**
+     * After maxflow has been computed, this method can be called to get the "S"-side of the min-cut as a bit
+     * for each vertex index. It is found by one BFS along the residual arcs with an int array as queue, and
+     * the set returned is kept by the Flow until the next run, so it should not be changed.
+     * 
+     * @return			The indices of the vertices reachable from source
+     */
+    public BitSet minCutSide() {
+    	if(this.side.isEmpty())
+    	{
+    		//Do BFS along the residual arcs
+    		int [] queue = new int[this.csr.n];
+    		int head = 0, tail = 0;
+    		this.side.set(this.s.getIndex());
+    		queue[tail++] = this.s.getIndex();
+    		while(head<tail)
+    		{
+    			int u = queue[head++];
+    			for(int a=this.csr.first[u]; a<this.csr.first[u+1]; a++)
+    			{
+    				int v = this.csr.head[a];
+    				if(!this.side.get(v) && this.residual(a)>0)
+    				{
+    					this.side.set(v);
+    					queue[tail++] = v;
+    				}
+    			}
+    		}
+    	}
+    	return this.side;
+    }
+    
+    /**
+     * Indices of the edges going from the "S"-side to the "T"-side of the min cut, which are all saturated.
+     * Their capacities add up to the cut value. Found in one scan of the out-arcs of the "S"-side.
+     * 
+     * @return			The edge indices, in the order of their tails
+     */
+    public int[] cutEdges() {
+    	BitSet S = minCutSide();
+    	int [] edges = new int[this.csr.arcSize()/2];
+    	int k = 0;
+    	for(int u=S.nextSetBit(0); u>=0; u=S.nextSetBit(u+1))
+    	{
+    		for(int a=this.csr.first[u]; a<this.csr.mid[u]; a++)
+    		{
+    			if(!S.get(this.csr.head[a]))
+    			{
+    				edges[k++] = this.csr.edge[a];
+    			}
+    		}
+    	}
+    	return Arrays.copyOf(edges, k);
+    }
+    
     /**
      * After maxflow has been computed, this method can be called to get 
      * the "S"-side of the min-cut found by the algorithm
@@ -349,33 +1490,13 @@ public class Flow {
      * @return			The set of vertices reachable from source
      */
     public Set<Vertex> minCutS() {
-    	if(this.S.isEmpty())
-    	{
-    		//Do BFS
-    		Queue<Vertex> queue = new LinkedList<Vertex>();
-        	this.S.add(this.s);
-        	queue.add(this.s);
-        	while(!queue.isEmpty())
-        	{
-        		for(int k=0; k<queue.size(); k++)
-        		{
-        			Vertex u = queue.poll();
-        			for(Edge e: this.g.outEdges(u))
-        			{
-        				if(this.capacity(e)-this.flow(e)>0)
-        				{
-        					Vertex v = e.otherEnd(u);
-        					if(!this.S.contains(v))
-        					{
-        						this.S.add(v);
-        				    	queue.add(v);
-        					}
-        				}
-        			}
-        		}
-        	}
-    	}    	
-	return this.S;
+    	BitSet S = minCutSide();
+    	Set<Vertex> set = new HashSet<Vertex>(2*S.cardinality());
+    	for(int u=S.nextSetBit(0); u>=0; u=S.nextSetBit(u+1))
+    	{
+    		set.add(this.csr.vertex[u]);
+    	}
+	return set;
     }
 
     /**
@@ -385,11 +1506,12 @@ public class Flow {
      * @return			The set of vertices which are not reachable from source
      */
     public Set<Vertex> minCutT() {
-    	//Make a set of all the vertices
-    	Set<Vertex> T = new HashSet<Vertex>(Arrays.asList(this.g.getVertexArray()));
-    	
-    	//Remove the vertices reachable from source
-    	T.removeAll(this.minCutS());
-	return T;
+    	BitSet S = minCutSide();
+    	Set<Vertex> set = new HashSet<Vertex>(2*(this.csr.n-S.cardinality()));
+    	for(int u=S.nextClearBit(0); u<this.csr.n; u=S.nextClearBit(u+1))
+    	{
+    		set.add(this.csr.vertex[u]);
+    	}
+	return set;
     }
 }
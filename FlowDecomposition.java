@@ -0,0 +1,319 @@
+package sxa190016;
+
+import sxa190016.Graph.*;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Flow Decomposition: Split a flow into paths and cycles, each with the amount it carries, one at a time.
+ * 							A path starts at a vertex with more flow going out than coming in and ends at one with
+ * 							more coming in than going out, so the flows of Flow, of its first phase and of MinCostFlow
+ * 							with supplies can all be split. Once these are used up what is left are cycles.
+ * 							The walk keeps a current arc at each vertex and works on int arrays indexed by edge and
+ * 							vertex index, so the pieces are found in O(m + n*pieces) time without touching the flow.
+ */
+public class FlowDecomposition implements Iterator<FlowDecomposition.Path> {
+	/**
+	 * The CSR view of the graph
+	 */
+	private CSRGraph csr;
+
+	/**
+	 * Flow of each edge not yet given to a piece
+	 */
+	private int [] rest;
+
+	/**
+	 * Flow going out minus flow coming in at each vertex, for the flow not yet given to a piece
+	 */
+	private int [] balance;
+
+	/**
+	 * Current arc of each vertex: its forward arcs before current[u] have no flow left
+	 */
+	private int [] current;
+
+	/**
+	 * Position of each vertex on the walk, -1 if it is not on it
+	 */
+	private int [] position;
+
+	/**
+	 * Vertices and arcs of the walk, the arc walk[i] goes from vertex walkVertex[i] to walkVertex[i+1]
+	 */
+	private int [] walkVertex;
+	private int [] walk;
+
+	/**
+	 * Position of the last vertex of the walk, -1 when there is no walk
+	 */
+	private int top;
+
+	/**
+	 * Next vertex to look at for the start of a walk
+	 */
+	private int scan;
+
+	/**
+	 * True once the vertices with flow to send are used up and only cycles are left
+	 */
+	private boolean cycles;
+
+	/**
+	 * The piece to be returned by next, null if it is not found yet
+	 */
+	private Path next;
+
+	/**
+	 * A path or a cycle of the decomposition
+	 */
+	public static class Path {
+		/**
+		 * The flow it carries
+		 */
+		public final int amount;
+
+		/**
+		 * True for a cycle, whose first and last vertex are the same
+		 */
+		public final boolean cycle;
+
+		/**
+		 * Its vertices in order, one more than its edges
+		 */
+		public final Vertex[] vertices;
+
+		/**
+		 * Its edges in order
+		 */
+		public final Edge[] edges;
+
+		Path(int amount, boolean cycle, Vertex[] vertices, Edge[] edges) {
+			this.amount = amount;
+			this.cycle = cycle;
+			this.vertices = vertices;
+			this.edges = edges;
+		}
+
+		public String toString() {
+			return (this.cycle ? "cycle " : "path ") + this.amount + ": " + Arrays.toString(this.vertices);
+		}
+	}
+
+	/**
+	 * Constructor to initialize the member variables. The flow is read once into an int array.
+	 *
+	 * @param csr		The CSR view of the graph
+	 * @param flow		Flow of each edge indexed by edge index
+	 */
+	public FlowDecomposition(CSRGraph csr, EdgeIntProperty flow) {
+		this.csr = csr;
+		this.rest = new int[csr.m];
+		this.balance = new int[csr.n];
+		this.current = new int[csr.n];
+		this.position = new int[csr.n];
+		this.walkVertex = new int[csr.n+1];
+		this.walk = new int[csr.n];
+		for(int k=0; k<csr.m; k++)
+		{
+			//An extra edge of the CSR graph, like the return arc of MinCostFlow, is not part of the flow
+			int f = csr.edges[k]==null ? 0 : flow.get(k);
+			this.rest[k] = f;
+			this.balance[csr.from[k]] += f;
+			this.balance[csr.to[k]] -= f;
+		}
+		for(int u=0; u<csr.n; u++)
+		{
+			this.current[u] = csr.first[u];
+		}
+		Arrays.fill(this.position, -1);
+		this.top = -1;
+	}
+
+	public boolean hasNext() {
+		if(this.next==null)
+		{
+			this.next = advance();
+		}
+		return this.next!=null;
+	}
+
+	public Path next() {
+		if(!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+		Path p = this.next;
+		this.next = null;
+		return p;
+	}
+
+	/**
+	 * The pieces left as a sequential stream
+	 */
+	public Stream<Path> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * Extend the walk along edges with flow left until it reaches a vertex with more flow coming in, which ends
+	 * a path, or comes back to one of its own vertices, which closes a cycle
+	 *
+	 * @return			The next piece, null if no flow is left
+	 */
+	private Path advance()
+	{
+		while(true)
+		{
+			if(this.top<0 && !start())
+			{
+				return null;
+			}
+			int v = this.walkVertex[this.top];
+			if(this.top>0 && this.balance[v]<0)
+			{
+				return cutPath();
+			}
+
+			//Skip the arcs with no flow left, they get none back
+			int a = this.current[v];
+			while(a<this.csr.mid[v] && this.rest[this.csr.edge[a]]==0)
+			{
+				a++;
+			}
+			this.current[v] = a;
+			if(a==this.csr.mid[v])
+			{
+				if(this.top>0)
+				{
+					throw new IllegalStateException("Flow is not conserved at "+this.csr.vertex[v]);
+				}
+
+				//A start vertex of the cycles with nothing left
+				this.position[v] = -1;
+				this.top = -1;
+				this.scan++;
+				continue;
+			}
+			int w = this.csr.head[a];
+			if(this.position[w]>=0)
+			{
+				return cutCycle(a);
+			}
+			this.walk[this.top] = a;
+			this.walkVertex[++this.top] = w;
+			this.position[w] = this.top;
+		}
+	}
+
+	/**
+	 * Start a walk at the next vertex with flow to send, or once there is none at the next vertex with an edge
+	 * with flow left
+	 *
+	 * @return			false if there is no flow left
+	 */
+	private boolean start()
+	{
+		if(!this.cycles)
+		{
+			while(this.scan<this.csr.n && this.balance[this.scan]<=0)
+			{
+				this.scan++;
+			}
+			if(this.scan==this.csr.n)
+			{
+				this.cycles = true;
+				this.scan = 0;
+			}
+		}
+		if(this.scan==this.csr.n)
+		{
+			return false;
+		}
+		this.top = 0;
+		this.walkVertex[0] = this.scan;
+		this.position[this.scan] = 0;
+		return true;
+	}
+
+	/**
+	 * Take the walk as a path, carrying as much as its start can send, its end can take and its edges have left.
+	 * The walk is dropped.
+	 *
+	 * @return			The path
+	 */
+	private Path cutPath()
+	{
+		int u = this.walkVertex[0];
+		int v = this.walkVertex[this.top];
+		int amount = Math.min(this.balance[u], -this.balance[v]);
+		for(int i=0; i<this.top; i++)
+		{
+			amount = Math.min(amount, this.rest[this.csr.edge[this.walk[i]]]);
+		}
+		Path p = piece(0, this.top, amount, false);
+		this.balance[u] -= amount;
+		this.balance[v] += amount;
+		for(int i=0; i<=this.top; i++)
+		{
+			this.position[this.walkVertex[i]] = -1;
+		}
+		this.top = -1;
+		return p;
+	}
+
+	/**
+	 * Take the cycle closed by arc a, carrying as much as its edges have left. The walk is cut back to the
+	 * vertex where the cycle starts.
+	 *
+	 * @param a			Arc from the last vertex of the walk to a vertex on it
+	 * @return			The cycle
+	 */
+	private Path cutCycle(int a)
+	{
+		int from = this.position[this.csr.head[a]];
+		this.walk[this.top] = a;
+		this.walkVertex[this.top+1] = this.csr.head[a];
+		int amount = Integer.MAX_VALUE;
+		for(int i=from; i<=this.top; i++)
+		{
+			amount = Math.min(amount, this.rest[this.csr.edge[this.walk[i]]]);
+		}
+		Path p = piece(from, this.top+1, amount, true);
+		for(int i=from+1; i<=this.top; i++)
+		{
+			this.position[this.walkVertex[i]] = -1;
+		}
+		this.top = from;
+		return p;
+	}
+
+	/**
+	 * Make the piece from position i to position j of the walk and take its amount off the edges
+	 */
+	private Path piece(int i, int j, int amount, boolean cycle)
+	{
+		Vertex [] vertices = new Vertex[j-i+1];
+		Edge [] edges = new Edge[j-i];
+		for(int k=i; k<=j; k++)
+		{
+			vertices[k-i] = this.csr.vertex[this.walkVertex[k]];
+			if(k<j)
+			{
+				int e = this.csr.edge[this.walk[k]];
+				edges[k-i] = this.csr.edges[e];
+				this.rest[e] -= amount;
+			}
+		}
+		return new Path(amount, cycle, vertices, edges);
+	}
+}
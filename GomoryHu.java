@@ -0,0 +1,335 @@
+package sxa190016;
+
+import sxa190016.Graph.*;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Gomory-Hu Tree: Build the Gomory-Hu tree of a graph by Gusfield's algorithm, so that the min cut
+ * 							between any two vertices is the smallest capacity on the tree path joining them.
+ * 							The edges are taken as undirected: an edge of capacity c can carry c units either way.
+ * 							The n-1 max-flows are run with Flow on a thread pool. Each is started speculatively with
+ * 							the tree parent known at that time, and is run again when an earlier cut moved the vertex
+ * 							to another parent. Queries walk up the tree by binary lifting in O(log n).
+ */
+public class GomoryHu {
+	/**
+	 * The symmetric directed graph with both directions of each edge of the input graph
+	 */
+	private Graph h;
+
+	/**
+	 * The CSR view of h, shared by all the flows
+	 */
+	private CSRGraph csr;
+
+	/**
+	 * Capacity of each edge of h
+	 */
+	private EdgeIntProperty capacity;
+
+	/**
+	 * Number of worker threads
+	 */
+	private int threads;
+
+	/**
+	 * Parent of each vertex in the tree, the vertex with index 0 is the root
+	 */
+	private int [] parent;
+
+	/**
+	 * Min cut between each vertex and its parent
+	 */
+	private int [] cut;
+
+	/**
+	 * Depth of each vertex in the tree
+	 */
+	private int [] depth;
+
+	/**
+	 * up[j][u] is the ancestor of u 2^j levels up, and low[j][u] the smallest cut on the way to it
+	 */
+	private int [][] up;
+	private int [][] low;
+
+	/**
+	 * Number of max-flows run by the last build, including the ones run again
+	 */
+	private int flows;
+
+	/**
+	 * Result of the max-flow between a vertex and the parent it had when the flow was started
+	 */
+	private static class Cut {
+		int t;
+		int value;
+		BitSet side;
+	}
+
+	/**
+	 * Constructor using one thread per available processor
+	 *
+	 * @param g			The graph, its edges are taken as undirected
+	 * @param capacity	Capacity of each edge indexed by edge index
+	 */
+	public GomoryHu(Graph g, EdgeIntProperty capacity) {
+		this(g, capacity, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor to initialize the member variables
+	 *
+	 * @param g			The graph, its edges are taken as undirected
+	 * @param capacity	Capacity of each edge indexed by edge index
+	 * @param threads	Number of worker threads
+	 */
+	public GomoryHu(Graph g, EdgeIntProperty capacity, int threads) {
+		int n = g.size();
+		this.h = new Graph(n, true);
+		this.capacity = new EdgeIntProperty(2*g.edgeSize());
+		int name = 1;
+		for(Edge e: g.getEdgeArray())
+		{
+			Vertex u = this.h.getVertex(e.fromVertex().getName());
+			Vertex v = this.h.getVertex(e.toVertex().getName());
+			this.capacity.set(name-1, capacity.get(e));
+			this.h.addEdge(u, v, e.getWeight(), name++);
+			this.capacity.set(name-1, capacity.get(e));
+			this.h.addEdge(v, u, e.getWeight(), name++);
+		}
+		this.csr = new CSRGraph(this.h);
+		this.threads = Math.max(1, threads);
+		this.parent = new int[n];
+		this.cut = new int[n];
+		this.depth = new int[n];
+	}
+
+	/**
+	 * Build the tree by Gusfield's algorithm: for s=1..n-1 in order, find the min cut between s and its parent t,
+	 * then the vertices after s which have parent t and are on the side of s get s as their parent. If the parent
+	 * of t is on the side of s too, s takes the place of t below it, so that each tree edge is a min cut.
+	 * The flows for the next vertices are started ahead on the pool with their current parents, and the
+	 * result of a flow is only used if the parent has not changed since it was started.
+	 */
+	public void build() {
+		int n = this.csr.n;
+		this.parent = new int[n];
+		this.cut = new int[n];
+		this.flows = 0;
+		ExecutorService pool = this.threads>1 ? Executors.newFixedThreadPool(this.threads) : null;
+		try
+		{
+			ArrayDeque<Future<Cut>> started = new ArrayDeque<>();
+			int next = 1;
+			for(int s=1; s<n; s++)
+			{
+				//Keep twice as many flows started as there are threads
+				while(pool!=null && next<n && next-s<2*this.threads)
+				{
+					final int u = next++;
+					final int t = this.parent[u];
+					started.add(pool.submit(() -> minCut(u, t)));
+				}
+				Cut c = pool!=null ? started.poll().get() : null;
+				if(c==null || c.t!=this.parent[s])
+				{
+					c = minCut(s, this.parent[s]);
+				}
+				int t = c.t;
+				this.cut[s] = c.value;
+				for(int i=s+1; i<n; i++)
+				{
+					if(c.side.get(i) && this.parent[i]==t)
+					{
+						this.parent[i] = s;
+					}
+				}
+				if(t!=0 && c.side.get(this.parent[t]))
+				{
+					this.parent[s] = this.parent[t];
+					this.parent[t] = s;
+					this.cut[s] = this.cut[t];
+					this.cut[t] = c.value;
+				}
+			}
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while building the Gomory-Hu tree", e);
+		}
+		catch(ExecutionException e)
+		{
+			throw new IllegalStateException(e.getCause());
+		}
+		finally
+		{
+			if(pool!=null)
+			{
+				pool.shutdownNow();
+			}
+		}
+		buildLifting();
+	}
+
+	/**
+	 * Find the min cut between s and t with a new Flow on the shared graph
+	 *
+	 * @param s			Index of the vertex
+	 * @param t			Index of its parent
+	 * @return			The cut value and the side of s
+	 */
+	private Cut minCut(int s, int t)
+	{
+		Flow f = new Flow(this.h, this.csr, this.csr.vertex[s], this.csr.vertex[t], this.capacity);
+		f.setActiveVertices(new ActiveVertices.HighestLabel(this.csr.n));
+		Cut c = new Cut();
+		c.t = t;
+		c.value = f.minCutOnly();
+		c.side = f.minCutSide();
+		synchronized(this)
+		{
+			this.flows++;
+		}
+		return c;
+	}
+
+	/**
+	 * Compute the depths by a BFS from the root and the binary lifting tables
+	 */
+	private void buildLifting()
+	{
+		int n = this.csr.n;
+		int levels = 1;
+		while((1<<levels)<n)
+		{
+			levels++;
+		}
+		this.up = new int[levels][n];
+		this.low = new int[levels][n];
+
+		//List the children of each vertex in CSR form
+		int [] first = new int[n+1];
+		for(int u=1; u<n; u++)
+		{
+			first[this.parent[u]+1]++;
+		}
+		for(int u=0; u<n; u++)
+		{
+			first[u+1] += first[u];
+		}
+		int [] child = new int[Math.max(n-1, 0)];
+		int [] pos = new int[n];
+		for(int u=1; u<n; u++)
+		{
+			int p = this.parent[u];
+			child[first[p]+pos[p]++] = u;
+		}
+		int [] queue = new int[n];
+		int head = 0, tail = 0;
+		if(n>0)
+		{
+			queue[tail++] = 0;
+		}
+		while(head<tail)
+		{
+			int u = queue[head++];
+			this.up[0][u] = u==0 ? 0 : this.parent[u];
+			this.low[0][u] = u==0 ? Integer.MAX_VALUE : this.cut[u];
+			this.depth[u] = u==0 ? 0 : this.depth[this.parent[u]]+1;
+			for(int i=first[u]; i<first[u+1]; i++)
+			{
+				queue[tail++] = child[i];
+			}
+		}
+		for(int j=1; j<levels; j++)
+		{
+			for(int u=0; u<n; u++)
+			{
+				int mid = this.up[j-1][u];
+				this.up[j][u] = this.up[j-1][mid];
+				this.low[j][u] = Math.min(this.low[j-1][u], this.low[j-1][mid]);
+			}
+		}
+	}
+
+	/**
+	 * Value of the min cut between u and v, the smallest cut on the tree path joining them
+	 *
+	 * @param u			A vertex
+	 * @param v			Another vertex
+	 * @return			The min cut value
+	 */
+	public int minCut(Vertex u, Vertex v) {
+		int a = u.getIndex();
+		int b = v.getIndex();
+		if(a==b)
+		{
+			throw new IllegalArgumentException("Min cut between a vertex and itself");
+		}
+		int result = Integer.MAX_VALUE;
+		if(this.depth[a]<this.depth[b])
+		{
+			int tmp = a;
+			a = b;
+			b = tmp;
+		}
+
+		//Lift a to the depth of b
+		for(int j=this.up.length-1; j>=0; j--)
+		{
+			if(this.depth[a]-(1<<j)>=this.depth[b])
+			{
+				result = Math.min(result, this.low[j][a]);
+				a = this.up[j][a];
+			}
+		}
+
+		//Lift both below their lowest common ancestor
+		if(a!=b)
+		{
+			for(int j=this.up.length-1; j>=0; j--)
+			{
+				if(this.up[j][a]!=this.up[j][b])
+				{
+					result = Math.min(result, Math.min(this.low[j][a], this.low[j][b]));
+					a = this.up[j][a];
+					b = this.up[j][b];
+				}
+			}
+			result = Math.min(result, Math.min(this.low[0][a], this.low[0][b]));
+		}
+		return result;
+	}
+
+	/**
+	 * Parent of u in the tree, null for the root
+	 */
+	public Vertex parent(Vertex u) {
+		return u.getIndex()==0 ? null : this.csr.vertex[this.parent[u.getIndex()]];
+	}
+
+	/**
+	 * Min cut between u and its parent in the tree
+	 */
+	public int parentCut(Vertex u) {
+		return this.cut[u.getIndex()];
+	}
+
+	/**
+	 * Number of max-flows run by the last call to build, including the ones run again after the parent changed
+	 */
+	public int flows() {
+		return this.flows;
+	}
+}
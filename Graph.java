@@ -149,6 +149,11 @@ public class Graph implements Iterable<Graph.Vertex> {
 	    name = n;
 	}
 
+	/* Index i stores edge with name i+1 */
+	public int getIndex() {
+	    return name - 1;
+	}
+
 	/**
 	 * Method to find the other end end of an edge, given a vertex reference
 	 * This method is used for undirected graphs
@@ -1,8 +1,9 @@
 package sxa190016;
 
 import sxa190016.Graph.*;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Map;
+import java.util.PriorityQueue;
 
 /**
  * @author sxa190016
@@ -10,28 +11,94 @@ import java.util.Map;
  * @author epm180002
  * @author nxs190026
  * @version 1.0 Cost Scaling: Implement Cost-scaling min-cost flow algorithm  to find the Max-Flow
- * 						  		with minimum cost through a directed graph.
+ * 						  		with minimum cost through a directed graph. Costs are multiplied by n+1 and prices
+ * 						  		and epsilon are kept as long, so a 1-optimal flow is exactly optimal and the
+ * 						  		scaling stops after O(log(nC)) refines. The heuristics of Goldberg's CS2 can each be
+ * 						  		turned off: exact relabel, price update, push lookahead and arc fixing. The max
+ * 						  		flow of min cost is found by one solve, as a min-cost circulation with a return
+ * 						  		arc from the sink to the source.
  */
-public class MinCostFlow extends Flow {
+public class MinCostFlow extends Flow implements MinCostFlowSolver {
 	/**
 	 * Contains the cost per flow for each edge
 	 */
-	private HashMap<Edge, Integer> cost;
+	private EdgeIntProperty cost;
 	
 	/**
-	 * The optimality approximation factor
+	 * Factor the costs are multiplied by, n+1
 	 */
-	private float e;
+	private long scale;
+
+	/**
+	 * Cost per flow of each edge times scale, including the return arc
+	 */
+	private EdgeLongProperty scaledCost;
+
+	/**
+	 * Index of the return arc from t to s, the extra edge of the CSR graph after the edges of g. It only has
+	 * capacity in costScalingMinCostFlow.
+	 */
+	private int returnEdge;
+
+	/**
+	 * The optimality approximation factor, in units of the scaled costs
+	 */
+	private long e;
 	
 	/**
-	 * Stores the value of p for each vertex
+	 * Stores the value of p for each vertex, in units of the scaled costs
 	 */
-	private float [] p;
+	private long [] p;
 	
 	/**
 	 * Stores the initial supply and demand for each vertex
 	 */
 	private int [] supply;
+
+	/**
+	 * Set to true to relabel a vertex to the highest price giving it an admissible arc instead of lowering it by e
+	 */
+	private boolean exactRelabel = true;
+
+	/**
+	 * A price update is done at the start of each refine and after priceUpdateFreq*n relabels, 0 to disable
+	 */
+	private double priceUpdateFreq = 1.0;
+
+	/**
+	 * Relabels done since the last price update
+	 */
+	private long relabelsSinceUpdate;
+
+	/**
+	 * Set to true to relabel the head of an admissible arc before pushing to it if it has no excess and no admissible arc
+	 */
+	private boolean lookahead = true;
+
+	/**
+	 * Set to true to fix the flow of the edges whose reduced cost is too large for it to change again
+	 */
+	private boolean arcFixing = true;
+
+	/**
+	 * Edges whose flow is fixed, indexed by edge index. They are left out of every scan.
+	 */
+	private boolean [] fixed;
+
+	/**
+	 * Epsilon of the last refine, 0 before the first one of a run
+	 */
+	private long lastE;
+
+	/**
+	 * Distance of each vertex from the vertices with a deficit in the price update, in units of e
+	 */
+	private long [] dist;
+
+	/**
+	 * Vertices whose distance is final in the price update
+	 */
+	private boolean [] scanned;
 	
 	/**
 	 * Set to 1 to print all the intermediate steps
@@ -48,13 +115,78 @@ public class MinCostFlow extends Flow {
 	 * @param cost		The cost per flow of each edge
 	 */
 	public MinCostFlow(Graph g, Vertex s, Vertex t, HashMap<Edge, Integer> capacity, HashMap<Edge, Integer> cost) {
-		super(g, s, t, capacity);
+		this(g, s, t, new EdgeIntProperty(g, capacity), new EdgeIntProperty(g, cost));
+	}
+
+	/**
+	 * Constructor to initialize member variables
+	 * 
+	 * @param g			The input Graph 
+	 * @param s			The source vertex
+	 * @param t			The sink vertex
+	 * @param capacity	The capacity of each edge indexed by edge index
+	 * @param cost		The cost per flow of each edge indexed by edge index
+	 */
+	public MinCostFlow(Graph g, Vertex s, Vertex t, EdgeIntProperty capacity, EdgeIntProperty cost) {
+		super(g, new CSRGraph(g, t, s), s, t, new EdgeIntProperty(capacity, g.edgeSize()+1));
 		this.cost = cost;
-		this.p = new float[g.size()];
+		this.scale = g.size()+1;
+		this.returnEdge = g.edgeSize();
+		this.scaledCost = new EdgeLongProperty(this.csr.m);
+		for(int k=0; k<this.returnEdge; k++)
+		{
+			this.scaledCost.set(k, cost.get(k)*this.scale);
+		}
+		this.p = new long[g.size()];
 		this.supply = new int[g.size()];
+		this.fixed = new boolean[this.csr.m];
+		this.dist = new long[g.size()];
+		this.scanned = new boolean[g.size()];
 		this.VERBOSE = 0;
 	}
 
+	/**
+	 * Turn exact relabeling on or off (on by default)
+	 * 
+	 * @param exactRelabel	True to set the price of a relabeled vertex to the highest one giving it an admissible arc
+	 */
+	public void setExactRelabel(boolean exactRelabel)
+	{
+		this.exactRelabel = exactRelabel;
+	}
+
+	/**
+	 * Set how often the prices are recomputed by a price update
+	 * 
+	 * @param freq		A price update is done at the start of each refine and after freq*n relabels, 0 to disable
+	 */
+	public void setPriceUpdateFrequency(double freq)
+	{
+		this.priceUpdateFreq = freq;
+	}
+
+	/**
+	 * Turn push lookahead on or off (on by default)
+	 * 
+	 * @param lookahead	True to relabel the head of an admissible arc instead of pushing to it when it has no excess
+	 * 					and no admissible arc, since the flow would have to come back
+	 */
+	public void setLookahead(boolean lookahead)
+	{
+		this.lookahead = lookahead;
+	}
+
+	/**
+	 * Turn arc fixing on or off (on by default)
+	 * 
+	 * @param arcFixing	True to stop scanning the edges whose reduced cost is at least 2n times the epsilon of the
+	 * 					last refine, whose flow is the same in every optimal flow
+	 */
+	public void setArcFixing(boolean arcFixing)
+	{
+		this.arcFixing = arcFixing;
+	}
+
 	/**
 	 * Find the maximum cost per flow among all edges
 	 * 
@@ -62,14 +194,7 @@ public class MinCostFlow extends Flow {
 	 */
 	private int maxCost()
 	{
-		int result = 0;
-		for(Map.Entry<Edge, Integer> entry : cost.entrySet())
-		{
-			if(entry.getValue().compareTo(result)>0)
-			{
-				result = entry.getValue();
-			}
-		}
+		int result = Math.max(0, this.cost.max());
 		if(this.VERBOSE>0)
 		{
 			System.out.println("Max cost:"+result);
@@ -78,40 +203,78 @@ public class MinCostFlow extends Flow {
 	}
 
 	/**
-	 * Find the minimum cost of max flow through the graph
+	 * Find the minimum cost of max flow through the graph, as a min-cost circulation where the return arc from t to
+	 * s can carry any flow leaving s and has a cost below that of every path from s to t. A circulation with less
+	 * flow on the return arc can always be made cheaper, so the max flow value is never computed on its own.
+	 * When the scaled cost of the return arc does not fit in a long with room for the prices, which move by about as
+	 * much, the max flow value is found first by MaxFlowSolver.select and routed as the supply of s and t instead.
 	 * 
 	 * @return	The cost of max flow found by cost scaling algorithm
 	 */
 	public int costScalingMinCostFlow() {
-		this.e = this.maxCost();
-		int v = new Flow(g, s, t, capacity).preflowPush();
-		if(this.VERBOSE>0)
+		long start = System.nanoTime();
+		this.stats = new SolverStats();
+		this.supply = new int[this.csr.n];
+		long returnCost = 0;
+		try
 		{
-			System.out.println("MaxFlow:"+v);
+			//Four times the scaled cost has to fit, as the reduced costs add up prices of about that size
+			returnCost = Math.multiplyExact(this.returnCost(), 4*this.scale)/4;
 		}
-		this.supply[this.s.getIndex()] = v;
-		this.supply[this.t.getIndex()] = -v;
-		long oldCost = Long.MAX_VALUE;
-		long newCost = Long.MAX_VALUE;
-		while(true)
+		catch(ArithmeticException ex)
 		{
 			if(this.VERBOSE>0)
 			{
-				System.out.println("e:"+this.e);
-			}
-			this.refine();
-			newCost = this.calcMinCost();
-			if(newCost==oldCost)
-			{
-				break;
-			}
-			else
-			{
-				this.e /= 2;
-				oldCost=newCost;
+				System.out.println("Return arc cost overflows, finding the max flow first");
 			}
 		}
-		return (int)newCost;
+		boolean circulation = returnCost<0;
+		if(circulation)
+		{
+			this.capacity.set(this.returnEdge, this.returnCapacity());
+			this.scaledCost.set(this.returnEdge, returnCost);
+		}
+		else
+		{
+			this.capacity.set(this.returnEdge, 0);
+			this.scaledCost.set(this.returnEdge, 0);
+			int v = MaxFlowSolver.select(this.g, this.s, this.t, this.capacity).maxFlow();
+			this.supply[this.s.getIndex()] = v;
+			this.supply[this.t.getIndex()] = -v;
+		}
+		long result = this.costScaling();
+		if(this.VERBOSE>0)
+		{
+			System.out.println("MaxFlow:"+(circulation ? this.flow.get(this.returnEdge) : this.supply[this.s.getIndex()]));
+		}
+		this.stats.nanos = System.nanoTime()-start;
+		return (int)result;
+	}
+
+	/**
+	 * Find the min-cost flow meeting the supply and demand of each vertex
+	 * 
+	 * @param supply	The supply of each vertex indexed by vertex index, negative for a demand
+	 * @return			The cost of the flow
+	 */
+	public long solve(int [] supply) {
+		long start = System.nanoTime();
+		this.stats = new SolverStats();
+		this.supply = supply;
+		this.capacity.set(this.returnEdge, 0);
+		this.scaledCost.set(this.returnEdge, 0);
+		long result = this.costScaling();
+		this.stats.nanos = System.nanoTime()-start;
+		return result;
+	}
+
+	/**
+	 * Find the min-cost circulation, which is not zero only if the graph has a cycle of negative cost
+	 * 
+	 * @return			The cost of the circulation
+	 */
+	public long minCostCirculation() {
+		return this.solve(new int[this.csr.n]);
 	}
 
 	/**
@@ -121,103 +284,295 @@ public class MinCostFlow extends Flow {
 	 * @return			The minimum cost of max flow through the graph for CPP problem
 	 */
 	public long MCFforCPP(int [] supply) {
-		this.e = this.maxCost();
-		this.supply = supply;
-		long oldCost = Long.MAX_VALUE;
-		long newCost = Long.MAX_VALUE;
-		while(true)
+		return this.solve(supply);
+	}
+
+	/**
+	 * Capacity of the return arc: no flow is larger than the capacity leaving s or the capacity entering t
+	 * 
+	 * @return		The smaller of the two, at most Integer.MAX_VALUE
+	 */
+	private int returnCapacity()
+	{
+		long out = 0, in = 0;
+		int si = this.s.getIndex(), ti = this.t.getIndex();
+		for(int a=this.csr.first[si]; a<this.csr.mid[si]; a++)
+		{
+			if(this.csr.edge[a]!=this.returnEdge)
+			{
+				out += this.capacity.get(this.csr.edge[a]);
+			}
+		}
+		for(int a=this.csr.mid[ti]; a<this.csr.first[ti+1]; a++)
+		{
+			if(this.csr.edge[a]!=this.returnEdge)
+			{
+				in += this.capacity.get(this.csr.edge[a]);
+			}
+		}
+		return (int) Math.min(Math.min(out, in), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Cost per flow of the return arc: minus one more than the cost of any simple path in the residual graph,
+	 * which has fewer than n arcs
+	 * 
+	 * @return		The cost, not scaled
+	 */
+	private long returnCost()
+	{
+		long c = 0;
+		for(int k=0; k<this.returnEdge; k++)
+		{
+			c = Math.max(c, Math.abs((long) this.cost.get(k)));
+		}
+		return -((this.csr.n-1)*c+1);
+	}
+
+	/**
+	 * Refine with epsilon halved each time, from the largest scaled cost down to 1. The zero flow is C(n+1)-optimal
+	 * with zero prices, and a 1-optimal flow is optimal since every cycle has fewer than n+1 arcs and a scaled
+	 * cost which is a multiple of n+1. The flow and prices are kept from one refine to the next. The cost of the
+	 * return arc is left out of C: the first refine saturates it like any arc with negative reduced cost, and
+	 * starting from it would only add log(n) refines.
+	 * 
+	 * @return		The cost of the flow after the last refine
+	 */
+	private long costScaling()
+	{
+		Arrays.fill(this.p, 0);
+		Arrays.fill(this.fixed, false);
+		this.lastE = 0;
+		this.globalRelabels = 0;
+		this.flow.fill(0);
+		this.q.clear();
+		for(int u=0; u<this.csr.n; u++)
+		{
+			this.excess[u] = this.supply[u];
+			if(this.excess[u]>0)
+			{
+				this.q.add(u, 0);
+			}
+		}
+		int phase = 1;
+		for(this.e=Math.max(1, this.maxCost())*this.scale; this.e>=1; this.e/=2)
 		{
 			if(this.VERBOSE>0)
 			{
 				System.out.println("e:"+this.e);
 			}
-			this.refine();
-			newCost = this.calcMinCost();
-			if(newCost==oldCost)
+			if(Trace.ENABLED && this.trace!=null)
 			{
-				break;
+				this.trace.record(Trace.EPSILON, phase, this.e);
 			}
-			else
+			long refineStart = System.nanoTime();
+			this.refine();
+			this.stats.addRefine(this.e, System.nanoTime()-refineStart);
+			this.lastE = this.e;
+			if(Trace.ENABLED && this.trace!=null)
 			{
-				this.e /= 2;
-				oldCost=newCost;
+				this.trace.record(Trace.PHASE, phase, this.calcMinCost());
 			}
+			phase++;
 		}
-		return newCost;
+		return this.calcMinCost();
 	}
 
 	/**
 	 * Find the min cost for flow going through each edge
 	 * 
-	 * @return	The total sum of cost of flow going through each edge
+	 * @return	The total sum of cost of flow going through each edge, leaving out the return arc
 	 */
 	public long calcMinCost()
 	{
 		long result = 0;
-		for(Edge e: this.g.getEdgeArray())
+		for(int k=0; k<this.returnEdge; k++)
 		{	
-			result += (this.flow(e)*this.cost(e));
+			result += (long) this.flow.get(k)*this.cost.get(k);
 		}
 		return result;
 	}
 
 	/**
-	 * Refine the cost to make it e/2 optimal
+	 * Refine the cost to make it e optimal, starting from the flow of the last refine, which has no excess left, or
+	 * from the zero flow with the supplies as excess
 	 */
 	public void refine()
 	{
-		for(Edge e : this.g.getEdgeArray())
+		SolverEvents.Refine event = SolverEvents.ENABLED ? new SolverEvents.Refine() : null;
+		if(event!=null)
 		{
-			if(RC(e,1)<0)
-			{
-				this.flow.put(e, this.capacity(e));
-			}
-			else
-			{
-				this.flow.put(e, 0);
-			}
+			event.begin();
 		}
-		if(this.VERBOSE>0)
+		long pushes = this.stats.pushes;
+		long relabels = this.stats.relabels;
+		long discharges = this.stats.discharges;
+		if(this.arcFixing && this.lastE>0)
 		{
-			System.out.println("Flow:");
-			this.printFlow(); 
-		}		   	
-		for(Vertex u : this.g.getVertexArray())
+			this.fixArcs();
+		}
+
+		//Saturate the residual arcs with negative reduced cost, the only ones which are not e-optimal. The flow of the
+		//last refine is kept, so only the arcs whose reduced cost changed sign since then are touched.
+		for(int k=0; k<this.csr.m; k++)
 		{
-			this.excess[u.getIndex()] = this.supply[u.getIndex()];
-			for(Edge e : this.g.inEdges(u))
+			if(this.fixed[k])
 			{
-				this.excess[u.getIndex()] += this.flow(e);
+				continue;
 			}
-			for(Edge e : this.g.outEdges(u))
+			int a = this.csr.arcOf[k];
+			long rc = this.RC(a);
+			if(rc<0 && this.residual(a)>0)
 			{
-				this.excess[u.getIndex()] -= this.flow(e);
+				this.saturate(a);
 			}
-			if(this.excess[u.getIndex()]>0)
+			else if(rc>0 && this.residual(this.csr.rev[a])>0)
 			{
-				this.q.add(u);    			
+				this.saturate(this.csr.rev[a]);
 			}
 		}
 		if(this.VERBOSE>0)
 		{
+			System.out.println("Flow:");
+			this.printFlow(); 
 			System.out.print("Excess:");
 			this.printArray(this.excess);
 			System.out.print("p:");
 			this.printArray(this.p);
 		}
+		this.resetCurrentArcs();
+		if(this.priceUpdateFreq>0)
+		{
+			this.priceUpdate();
+		}
 
 		while(!q.isEmpty())
 		{
-			this.discharge(q.poll());
-			if(this.VERBOSE>0)
+			this.discharge(this.csr.vertex[this.q.poll()]);
+			this.stats.queuePolls++;
+			this.stats.discharges++;
+			if(this.priceUpdateFreq>0 && this.relabelsSinceUpdate>=this.priceUpdateFreq*this.csr.n)
+			{
+				this.priceUpdate();
+			}
+		}
+		if(event!=null && event.shouldCommit())
+		{
+			event.vertices = this.csr.n;
+			event.edges = this.csr.m;
+			event.epsilon = this.e;
+			event.pushes = this.stats.pushes-pushes;
+			event.relabels = this.stats.relabels-relabels;
+			event.discharges = this.stats.discharges-discharges;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Fix the edges whose reduced cost is at least 2n times the epsilon of the last refine. The flow left by it is
+	 * lastE-optimal, so every optimal flow has the same flow on them, and they are left as they are from now on.
+	 */
+	private void fixArcs()
+	{
+		long bound = 2*this.csr.n*this.lastE;
+		for(int k=0; k<this.csr.m; k++)
+		{
+			if(!this.fixed[k] && Math.abs(this.RC(this.csr.arcOf[k]))>=bound)
+			{
+				this.fixed[k] = true;
+			}
+		}
+	}
+
+	/**
+	 * Lower the prices by a Dijkstra search from the vertices with a deficit along the residual arcs taken
+	 * backwards, where an arc with reduced cost rc has length floor(rc/e)+1. The price of each vertex is lowered by
+	 * e times its distance, which keeps the flow e-optimal and gives every vertex with an excess an admissible path
+	 * to a deficit. The search stops once all the vertices with an excess are scanned, and the vertices left are
+	 * lowered by the last distance scanned.
+	 */
+	private void priceUpdate()
+	{
+		this.relabelsSinceUpdate = 0;
+		int left = 0;
+		PriorityQueue<long[]> heap = new PriorityQueue<>((x, y) -> Long.compare(x[0], y[0]));
+		for(int u=0; u<this.csr.n; u++)
+		{
+			this.scanned[u] = false;
+			this.dist[u] = Long.MAX_VALUE;
+			if(this.excess[u]>0)
 			{
-				System.out.print("Excess:");
-				this.printArray(this.excess);
-				System.out.print("p:");
-				this.printArray(this.p);
-				this.printFlow();
+				left++;
+			}
+			else if(this.excess[u]<0)
+			{
+				this.dist[u] = 0;
+				heap.add(new long[] { 0, u });
+			}
+		}
+		if(left==0)
+		{
+			return;
+		}
+		int active = left;
+		long d = 0;
+		while(left>0 && !heap.isEmpty())
+		{
+			long [] top = heap.poll();
+			int v = (int) top[1];
+			if(this.scanned[v] || top[0]>this.dist[v])
+			{
+				continue;
+			}
+			this.scanned[v] = true;
+			d = top[0];
+			if(this.excess[v]>0)
+			{
+				left--;
+			}
+
+			//Relax the residual arcs coming into v
+			for(int b=this.csr.first[v]; b<this.csr.first[v+1]; b++)
+			{
+				int a = this.csr.rev[b];
+				int x = this.csr.tail[a];
+				if(this.scanned[x] || this.fixed[this.csr.edge[a]] || this.residual(a)==0)
+				{
+					continue;
+				}
+				long nd = d+Math.floorDiv(this.RC(a), this.e)+1;
+				if(nd<this.dist[x])
+				{
+					this.dist[x] = nd;
+					heap.add(new long[] { nd, x });
+				}
 			}
 		}
+		for(int u=0; u<this.csr.n; u++)
+		{
+			this.p[u] -= (this.scanned[u] ? this.dist[u] : d)*this.e;
+		}
+		this.resetCurrentArcs();
+		this.globalRelabels++;
+		if(Trace.ENABLED && this.trace!=null)
+		{
+			this.trace.record(Trace.GLOBAL_RELABEL, this.globalRelabels, active);
+		}
+	}
+
+	/**
+	 * Push all the residual capacity of an arc, adding its head to the active vertices if it gets an excess
+	 * 
+	 * @param a		Index of the arc in the CSR graph
+	 */
+	private void saturate(int a)
+	{
+		int v = this.csr.head[a];
+		this.push(a, this.residual(a));
+		if(this.excess[v]>0)
+		{
+			this.q.add(v, 0);
+		}
 	}
 
 	/**
@@ -236,38 +591,69 @@ public class MinCostFlow extends Flow {
 	 */
 	public void discharge(Vertex u)
 	{
+		int ui = u.getIndex();
+		
 		//Do while there is an excess
-		while(this.excess[u.getIndex()]>0)
+		while(this.excess[ui]>0)
 		{
-			for(Edge e : this.g.outEdges(u))
+			//If no arc is left to push along then relabel the vertex and start again from its first arc
+			int a = this.current[ui];
+			if(a==this.csr.first[ui+1])
 			{
-				if(this.flow(e)<this.capacity(e))
-				{
-					if(this.RC(e, 1)<0)
-					{
-						this.push(e, 1);
-					}
-				}
+				this.relabel(u);
+				this.current[ui] = this.csr.first[ui];
+				continue;
 			}
-			for(Edge e : this.g.inEdges(u))
+			if(this.admissible(a))
 			{
-				if(this.flow(e)>0)
+				//Relabel the head instead if the flow would have to come back from it
+				int w = this.csr.head[a];
+				if(this.lookahead && this.excess[w]>=0 && !this.hasAdmissible(w))
 				{
-					if(this.RC(e, -1)<0)
-					{
-						this.push(e, -1);
-					}
+					this.relabel(this.csr.vertex[w]);
+					this.current[w] = this.csr.first[w];
+					continue;
 				}
+				this.push(a);
 			}
 			
-			//If it still has an excess then relabel the vertex
-			if(this.excess[u.getIndex()]>0)
+			//Move to the next arc unless the current one can take more flow
+			if(this.excess[ui]>0 || this.residual(a)==0)
 			{
-				this.relabel(u);
+				this.current[ui]++;
 			}
 		}
 	}
 
+	/**
+	 * Whether an arc has residual capacity and negative reduced cost, and is not fixed
+	 * 
+	 * @param a		Index of the arc in the CSR graph
+	 * @return		True if flow can be pushed along the arc
+	 */
+	private boolean admissible(int a)
+	{
+		return this.residual(a)>0 && !this.fixed[this.csr.edge[a]] && this.RC(a)<0;
+	}
+
+	/**
+	 * Whether a vertex has an admissible arc, moving its current arc to the first one. The arcs before the current
+	 * arc are not admissible since only prices of heads have dropped since it was moved past them.
+	 * 
+	 * @param w		Index of the vertex
+	 * @return		True if it has an admissible arc
+	 */
+	private boolean hasAdmissible(int w)
+	{
+		int a = this.current[w];
+		while(a<this.csr.first[w+1] && !this.admissible(a))
+		{
+			a++;
+		}
+		this.current[w] = a;
+		return a<this.csr.first[w+1];
+	}
+
 	/**
 	 * Push flow through an edge
 	 * 
@@ -276,49 +662,53 @@ public class MinCostFlow extends Flow {
 	 */
 	public void push(Edge e, int sign)
 	{
-		if(sign>0)
-		{
-			int min = Math.min(this.excess[e.fromVertex().getIndex()], this.capacity(e)-this.flow(e));
-			this.flow.replace(e, this.flow(e)+min);
-			this.excess[e.fromVertex().getIndex()] -= min;
-			this.excess[e.toVertex().getIndex()] += min;
-			if(this.excess[e.toVertex().getIndex()]<=min)
-			{
-				this.q.add(e.toVertex());
-			}
-		}
-		else
+		int a = this.csr.arcOf[e.getIndex()];
+		this.push(sign>0 ? a : this.csr.rev[a]);
+	}
+
+	/**
+	 * Push as much of the excess at its tail as possible through an arc
+	 * 
+	 * @param a		Index of the arc in the CSR graph
+	 */
+	protected void push(int a)
+	{
+		int min = Math.min(this.excess[this.csr.tail[a]], this.residual(a));
+		this.push(a, min);
+		int v = this.csr.head[a];
+		if(this.excess[v]>0 && this.excess[v]<=min)
 		{
-			int min = Math.min(this.excess[e.toVertex().getIndex()], this.flow(e));
-			this.flow.replace(e, this.flow(e)-min);
-			this.excess[e.toVertex().getIndex()] -= min;
-			this.excess[e.fromVertex().getIndex()] += min;
-			if(this.excess[e.fromVertex().getIndex()]<=min)
-			{
-				this.q.add(e.fromVertex());
-			}
+			this.q.add(v, 0);
 		}
 	}
 
 	/**
-	 * Relabel a vertex which has an excess
+	 * Relabel a vertex with no admissible arc, lowering its price by e or, with exact relabeling, until its cheapest
+	 * residual arc has reduced cost -e
 	 * 
 	 * @param u		The vertex which is to be relabeled
 	 */
 	public void relabel(Vertex u)
 	{
-		this.p[u.getIndex()] -= this.e/2;
-		if(this.VERBOSE>0)
+		int ui = u.getIndex();
+		long min = Long.MAX_VALUE;
+		if(this.exactRelabel)
 		{
-			for(Edge e : this.g.outEdges(u))
+			//Lowest reduced cost among the residual arcs, none of which is admissible
+			for(int a=this.csr.first[ui]; a<this.csr.first[ui+1]; a++)
 			{
-				System.out.print(e+"["+(this.capacity(e)-this.flow(e))+","+this.RC(e, 1)+"] ");
-			}
-			for(Edge e : this.g.inEdges(u))
-			{
-				System.out.print(e+"["+this.flow(e)+","+this.RC(e, -1)+"] ");
+				if(this.residual(a)>0 && !this.fixed[this.csr.edge[a]])
+				{
+					min = Math.min(min, this.RC(a));
+				}
 			}
-			System.out.println();
+		}
+		this.p[ui] -= min==Long.MAX_VALUE ? this.e : min+this.e;
+		this.stats.relabels++;
+		this.relabelsSinceUpdate++;
+		if(Trace.ENABLED && this.trace!=null)
+		{
+			this.trace.record(Trace.PRICE, u.getName(), this.p[ui]);
 		}
 	}
 
@@ -327,16 +717,24 @@ public class MinCostFlow extends Flow {
 	 * 
 	 * @param e		The edge for which RC is to be calculated
 	 * @param sign	+1 means flow is in the direction of the edge and -1 means it is in reverse direction
-	 * @return		The RC value for the edge
+	 * @return		The RC value for the edge, in units of the scaled costs
 	 */
-	public float RC(Edge e, int sign)
+	public long RC(Edge e, int sign)
 	{
-		float result = sign * (this.cost(e)+this.p[e.fromVertex().getIndex()]-this.p[e.toVertex().getIndex()]);
-		if(this.VERBOSE>0)
-		{
-			System.out.println("RC("+e+", "+sign+"):"+result);
-		}
-		return result;
+		int a = this.csr.arcOf[e.getIndex()];
+		return this.RC(sign>0 ? a : this.csr.rev[a]);
+	}
+
+	/**
+	 * Find the RC value for an arc
+	 * 
+	 * @param a		Index of the arc in the CSR graph
+	 * @return		The RC value for the arc, in units of the scaled costs
+	 */
+	protected long RC(int a)
+	{
+		long c = this.scaledCost.get(this.csr.edge[a]);
+		return (this.csr.forward[a] ? c : -c)+this.p[this.csr.tail[a]]-this.p[this.csr.head[a]];
 	}
 
 	/**
@@ -374,7 +772,7 @@ public class MinCostFlow extends Flow {
 	 * 
 	 * @param arr	The array to be printed
 	 */
-	protected void printArray(float [] arr)
+	protected void printArray(long [] arr)
 	{
 		for(int i=0; i<arr.length; i++)
 		{
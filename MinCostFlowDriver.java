@@ -4,7 +4,8 @@ import sxa190016.Graph;
 import sxa190016.Graph.*;
 
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -21,6 +22,17 @@ public class MinCostFlowDriver {
 	 */
 	static int VERBOSE = 0;
 
+	/**
+	 * File to write the trace to, null for no trace
+	 */
+	static String TRACE = null;
+
+	/**
+	 * Heuristics of the cost scaling to use, separated by commas, from "exact" (exact relabel), "price" (price
+	 * update), "lookahead" (push lookahead) and "fixing" (arc fixing), or "none"
+	 */
+	static String HEURISTICS = "exact,price,lookahead,fixing";
+
 	/**
 	 * The main method of the class
 	 * 
@@ -31,6 +43,8 @@ public class MinCostFlowDriver {
 		Scanner in = new Scanner(System.in);
 
 		if(args.length > 0) { VERBOSE = Integer.parseInt(args[0]); }
+		if(args.length > 1 && !args[1].equals("-")) { TRACE = args[1]; }
+		if(args.length > 2) { HEURISTICS = args[2]; }
 		
 		//Make the directed graph
 		Graph g = Graph.readDirectedGraph(in);
@@ -42,10 +56,10 @@ public class MinCostFlowDriver {
 		int t = in.nextInt();
 		
 		//Initialize capacities of all edges
-		HashMap<Edge,Integer> capacity = new HashMap<>();
+		EdgeIntProperty capacity = new EdgeIntProperty(g);
 		
 		//Initialize cost of all the edges
-		HashMap<Edge,Integer> cost = new HashMap<>();
+		EdgeIntProperty cost = new EdgeIntProperty(g);
 		
 		//Initialize and populate the array
 		int[] arr = new int[1 + g.edgeSize()];
@@ -78,14 +92,24 @@ public class MinCostFlowDriver {
 		
 		//Initialize the min-cost flow object
 		MinCostFlow mcf = new MinCostFlow(g, src, target, capacity, cost);
+		List<String> heuristics = Arrays.asList(HEURISTICS.split(","));
+		mcf.setExactRelabel(heuristics.contains("exact"));
+		mcf.setPriceUpdateFrequency(heuristics.contains("price") ? 1.0 : 0);
+		mcf.setLookahead(heuristics.contains("lookahead"));
+		mcf.setArcFixing(heuristics.contains("fixing"));
+
+		//Record the trace if asked
+		Trace trace = TRACE != null ? new Trace.BinaryFile(TRACE) : null;
+		mcf.setTrace(trace);
 
 		//Find the minimum cost of flow through the graph
 		int result = mcf.costScalingMinCostFlow();
+		if(trace != null) { trace.close(); }
 
 		//Print min-cost value
 		System.out.println(result);
 
-		//If verbosity is greater than 0 print the final flow through all edges
+		//If verbosity is greater than 0 print the final flow through all edges and the stats, in Prometheus format if greater than 1
 		if(VERBOSE > 0) {
 			for(Vertex u: g) {
 				System.out.print(u + " : ");
@@ -94,6 +118,8 @@ public class MinCostFlowDriver {
 				}
 				System.out.println();
 			}
+			System.out.println(mcf.stats());
+			if(VERBOSE > 1) { System.out.print(mcf.stats().toPrometheus()); }
 		}
 
 		//Print the time taken for execution
@@ -0,0 +1,89 @@
+package sxa190016;
+
+import sxa190016.Graph.*;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Min Cost Flow Solver: Common interface of the min-cost flow engines MinCostFlow (cost scaling),
+ * 							NetworkSimplex and SuccessiveShortestPaths, with a policy choosing the engine for an instance.
+ */
+public interface MinCostFlowSolver {
+	/**
+	 * Graphs with more edges than this are solved by cost scaling, below it network simplex is faster
+	 */
+	public static final int LARGE_GRAPH = 2000000;
+
+	/**
+	 * Graphs with more edges than this and a total supply of at most SMALL_SUPPLY are solved by successive
+	 * shortest paths
+	 */
+	public static final int MID_GRAPH = 500000;
+
+	/**
+	 * Total supply up to which successive shortest paths is used on graphs with more than MID_GRAPH edges
+	 */
+	public static final int SMALL_SUPPLY = 16;
+
+	/**
+	 * Find the min-cost flow meeting the supply and demand of each vertex
+	 *
+	 * @param supply	The supply of each vertex indexed by vertex index, negative for a demand
+	 * @return			The cost of the flow
+	 */
+	public long MCFforCPP(int [] supply);
+
+	/**
+	 * Flow going through edge e after MCFforCPP
+	 */
+	public int flow(Edge e);
+
+	/**
+	 * Capacity of edge e
+	 */
+	public int capacity(Edge e);
+
+	/**
+	 * Cost per flow of edge e
+	 */
+	public int cost(Edge e);
+
+	/**
+	 * Set the sink of the events of the next runs, null to record none. Engines without events ignore it.
+	 */
+	public default void setTrace(Trace trace) {
+	}
+
+	/**
+	 * Choose the engine expected to be the fastest for an instance: successive shortest paths for large graphs
+	 * with a small total supply, where a few Dijkstra searches cost less than building the spanning tree, network
+	 * simplex up to very large graphs, where few pivots with a cheap block search are needed, and cost scaling
+	 * for the largest ones, whose refines stay near linear per phase.
+	 *
+	 * @param g			The directed graph
+	 * @param s			The source vertex
+	 * @param t			The sink vertex
+	 * @param capacity	Capacity of each edge indexed by edge index
+	 * @param cost		Cost per flow of each edge indexed by edge index
+	 * @param supply	The supply of each vertex indexed by vertex index, negative for a demand
+	 * @return			The chosen engine, ready to run MCFforCPP
+	 */
+	public static MinCostFlowSolver select(Graph g, Vertex s, Vertex t, EdgeIntProperty capacity, EdgeIntProperty cost, int [] supply) {
+		long total = 0;
+		for(int u=0; u<supply.length; u++)
+		{
+			total += Math.max(supply[u], 0);
+		}
+		if(g.edgeSize()>MID_GRAPH && total<=SMALL_SUPPLY)
+		{
+			return new SuccessiveShortestPaths(g, capacity, cost);
+		}
+		if(g.edgeSize()<=LARGE_GRAPH)
+		{
+			return new NetworkSimplex(g, capacity, cost);
+		}
+		return new MinCostFlow(g, s, t, capacity, cost);
+	}
+}
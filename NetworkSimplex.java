@@ -0,0 +1,488 @@
+package sxa190016;
+
+import sxa190016.Graph.*;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Network Simplex: Find the min-cost flow meeting the supply and demand of each vertex by the primal
+ * 							network simplex. The basis is a strongly feasible spanning tree rooted at an artificial
+ * 							vertex, with an artificial edge to each vertex, and the leaving arc is the last blocking
+ * 							one on the cycle so the pivots cannot cycle. The entering arc is found by block search:
+ * 							the edges are scanned in blocks of about sqrt(m) from where the last search stopped, and
+ * 							the most negative one of the first block holding any is taken.
+ */
+public class NetworkSimplex implements MinCostFlowSolver {
+	/**
+	 * States of an arc: at its lower bound, in the tree or at its upper bound. The sign of a non-tree arc is the
+	 * direction in which its flow can change.
+	 */
+	private static final int LOWER = 1;
+	private static final int TREE = 0;
+	private static final int UPPER = -1;
+
+	/**
+	 * Smallest number of edges scanned in a block
+	 */
+	private static final int MIN_BLOCK_SIZE = 10;
+
+	/**
+	 * The CSR view of the graph
+	 */
+	private CSRGraph csr;
+
+	/**
+	 * Contains the capacity of all the edges
+	 */
+	private EdgeIntProperty capacity;
+
+	/**
+	 * Contains the cost per flow of all the edges
+	 */
+	private EdgeIntProperty cost;
+
+	/**
+	 * Stores the flow through all the edges
+	 */
+	private EdgeIntProperty flow;
+
+	/**
+	 * Number of vertices, which is also the index of the artificial root
+	 */
+	private int n;
+
+	/**
+	 * Number of edges. The arc m+u is the artificial edge between vertex u and the root.
+	 */
+	private int m;
+
+	/**
+	 * Ends, capacity, cost, flow and state of each arc, the edges first and then the artificial ones
+	 */
+	private int [] source;
+	private int [] target;
+	private long [] cap;
+	private long [] c;
+	private long [] x;
+	private int [] state;
+
+	/**
+	 * Price of each vertex: the reduced cost of arc a is c[a]+pi[source[a]]-pi[target[a]], 0 on the tree arcs
+	 */
+	private long [] pi;
+
+	/**
+	 * Parent of each vertex in the tree, the arc joining them and whether that arc goes up to the parent
+	 */
+	private int [] parent;
+	private int [] pred;
+	private boolean [] up;
+
+	/**
+	 * Depth of each vertex in the tree, the root has depth 0
+	 */
+	private int [] depth;
+
+	/**
+	 * Children of each vertex in a doubly linked list, -1 ends it
+	 */
+	private int [] firstChild;
+	private int [] nextSibling;
+	private int [] prevSibling;
+
+	/**
+	 * Stack of the walk over a subtree
+	 */
+	private int [] stack;
+
+	/**
+	 * Number of edges scanned in a block, and the edge where the next search starts
+	 */
+	private int blockSize;
+	private int nextArc;
+
+	/**
+	 * The entering arc found by the last search
+	 */
+	private int inArc;
+
+	/**
+	 * Number of pivots done by the last run
+	 */
+	private long pivots;
+
+	/**
+	 * Constructor to initialize the member variables
+	 *
+	 * @param g			The directed graph
+	 * @param capacity	Capacity of each edge indexed by edge index
+	 * @param cost		Cost per flow of each edge indexed by edge index
+	 */
+	public NetworkSimplex(Graph g, EdgeIntProperty capacity, EdgeIntProperty cost) {
+		this.csr = new CSRGraph(g);
+		this.capacity = capacity;
+		this.cost = cost;
+		this.flow = new EdgeIntProperty(g);
+		this.n = this.csr.n;
+		this.m = this.csr.m;
+		this.source = new int[this.m+this.n];
+		this.target = new int[this.m+this.n];
+		this.cap = new long[this.m+this.n];
+		this.c = new long[this.m+this.n];
+		this.x = new long[this.m+this.n];
+		this.state = new int[this.m+this.n];
+		this.pi = new long[this.n+1];
+		this.parent = new int[this.n+1];
+		this.pred = new int[this.n+1];
+		this.up = new boolean[this.n+1];
+		this.depth = new int[this.n+1];
+		this.firstChild = new int[this.n+1];
+		this.nextSibling = new int[this.n+1];
+		this.prevSibling = new int[this.n+1];
+		this.stack = new int[this.n+1];
+		this.blockSize = Math.max((int) Math.sqrt(this.m), MIN_BLOCK_SIZE);
+	}
+
+	/**
+	 * Find the min-cost flow meeting the supply and demand of each vertex
+	 *
+	 * @param supply	The supply of each vertex indexed by vertex index, negative for a demand
+	 * @return			The cost of the flow
+	 */
+	public long MCFforCPP(int [] supply) {
+		this.initialize(supply);
+		while(this.findEnteringArc())
+		{
+			this.pivot();
+			this.pivots++;
+		}
+
+		//Flow left on an artificial edge is supply which cannot reach a demand
+		for(int u=0; u<this.n; u++)
+		{
+			if(this.x[this.m+u]!=0)
+			{
+				throw new IllegalArgumentException("The demand of the vertices cannot be met");
+			}
+		}
+		long result = 0;
+		for(int k=0; k<this.m; k++)
+		{
+			this.flow.set(k, (int) this.x[k]);
+			result += this.x[k]*this.c[k];
+		}
+		return result;
+	}
+
+	/**
+	 * Number of pivots done by the last call to MCFforCPP
+	 */
+	public long pivots() {
+		return this.pivots;
+	}
+
+	/**
+	 * Start from the tree of the artificial edges, which carry all the supply to the root and from it to the
+	 * demands. The artificial edges into the vertices with a demand cost more than any path of edges, so they are
+	 * left empty by the optimal flow whenever the demand can be met.
+	 *
+	 * @param supply	The supply of each vertex indexed by vertex index
+	 */
+	private void initialize(int [] supply)
+	{
+		long sum = 0;
+		long maxCost = 0;
+		for(int u=0; u<this.n; u++)
+		{
+			sum += supply[u];
+		}
+		if(sum!=0)
+		{
+			throw new IllegalArgumentException("The supplies add up to "+sum+" instead of 0");
+		}
+		for(int k=0; k<this.m; k++)
+		{
+			this.source[k] = this.csr.from[k];
+			this.target[k] = this.csr.to[k];
+			this.cap[k] = this.capacity.get(k);
+			this.c[k] = this.cost.get(k);
+			this.x[k] = 0;
+			this.state[k] = LOWER;
+			maxCost = Math.max(maxCost, Math.abs(this.c[k]));
+		}
+		long artificialCost = (maxCost+1)*(this.n+1);
+
+		int root = this.n;
+		this.parent[root] = -1;
+		this.pred[root] = -1;
+		this.depth[root] = 0;
+		this.pi[root] = 0;
+		this.firstChild[root] = -1;
+		for(int u=0; u<this.n; u++)
+		{
+			int e = this.m+u;
+			this.cap[e] = Long.MAX_VALUE;
+			this.state[e] = TREE;
+			this.parent[u] = root;
+			this.pred[u] = e;
+			this.depth[u] = 1;
+			this.firstChild[u] = -1;
+			this.addChild(root, u);
+			if(supply[u]>=0)
+			{
+				this.source[e] = u;
+				this.target[e] = root;
+				this.x[e] = supply[u];
+				this.c[e] = 0;
+				this.up[u] = true;
+				this.pi[u] = 0;
+			}
+			else
+			{
+				this.source[e] = root;
+				this.target[e] = u;
+				this.x[e] = -supply[u];
+				this.c[e] = artificialCost;
+				this.up[u] = false;
+				this.pi[u] = artificialCost;
+			}
+		}
+		this.nextArc = 0;
+		this.pivots = 0;
+	}
+
+	/**
+	 * Find the entering arc by block search: scan the edges in blocks from where the last search stopped, and take
+	 * the one with the most negative reduced cost in its direction of change from the first block holding any
+	 *
+	 * @return			false if no edge has a negative reduced cost, so the flow is optimal
+	 */
+	private boolean findEnteringArc()
+	{
+		long min = 0;
+		int count = this.blockSize;
+		for(int i=0; i<this.m; i++)
+		{
+			int e = this.nextArc+i<this.m ? this.nextArc+i : this.nextArc+i-this.m;
+			long rc = this.state[e]*(this.c[e]+this.pi[this.source[e]]-this.pi[this.target[e]]);
+			if(rc<min)
+			{
+				min = rc;
+				this.inArc = e;
+			}
+			if(--count==0)
+			{
+				if(min<0)
+				{
+					this.nextArc = e+1<this.m ? e+1 : 0;
+					return true;
+				}
+				count = this.blockSize;
+			}
+		}
+		return min<0;
+	}
+
+	/**
+	 * Send as much flow as possible around the cycle the entering arc closes in the tree, and replace the last
+	 * arc on it which reached a bound by the entering arc
+	 */
+	private void pivot()
+	{
+		int in = this.inArc;
+		int first = this.state[in]==LOWER ? this.source[in] : this.target[in];
+		int second = this.state[in]==LOWER ? this.target[in] : this.source[in];
+		int join = this.join(first, second);
+
+		//The flow goes from the join down to first, along the entering arc and from second up to the join
+		long delta = this.cap[in];
+		int uOut = -1;
+		int side = 0;
+		for(int u=first; u!=join; u=this.parent[u])
+		{
+			int e = this.pred[u];
+			long d = this.up[u] ? this.x[e] : this.cap[e]-this.x[e];
+			if(d<delta)
+			{
+				delta = d;
+				uOut = u;
+				side = 1;
+			}
+		}
+		for(int u=second; u!=join; u=this.parent[u])
+		{
+			int e = this.pred[u];
+			long d = this.up[u] ? this.cap[e]-this.x[e] : this.x[e];
+			if(d<=delta)
+			{
+				delta = d;
+				uOut = u;
+				side = 2;
+			}
+		}
+		if(delta==Long.MAX_VALUE)
+		{
+			throw new IllegalArgumentException("The cost is unbounded");
+		}
+
+		if(delta>0)
+		{
+			long val = this.state[in]*delta;
+			this.x[in] += val;
+			for(int u=this.source[in]; u!=join; u=this.parent[u])
+			{
+				this.x[this.pred[u]] += this.up[u] ? -val : val;
+			}
+			for(int u=this.target[in]; u!=join; u=this.parent[u])
+			{
+				this.x[this.pred[u]] += this.up[u] ? val : -val;
+			}
+		}
+
+		//The entering arc went from one bound to the other, the tree stays the same
+		if(side==0)
+		{
+			this.state[in] = -this.state[in];
+			return;
+		}
+		int out = this.pred[uOut];
+		this.state[in] = TREE;
+		this.state[out] = this.x[out]==0 ? LOWER : UPPER;
+		if(side==1)
+		{
+			this.reroot(first, second, in, uOut);
+		}
+		else
+		{
+			this.reroot(second, first, in, uOut);
+		}
+	}
+
+	/**
+	 * Lowest common ancestor of two vertices in the tree
+	 */
+	private int join(int u, int v)
+	{
+		while(this.depth[u]>this.depth[v])
+		{
+			u = this.parent[u];
+		}
+		while(this.depth[v]>this.depth[u])
+		{
+			v = this.parent[v];
+		}
+		while(u!=v)
+		{
+			u = this.parent[u];
+			v = this.parent[v];
+		}
+		return u;
+	}
+
+	/**
+	 * Cut the subtree of uOut off the tree and hang it from vIn by the entering arc, turning the path from uIn up to
+	 * uOut around so that uIn is its new root. Its prices all change by the same amount, which makes the reduced
+	 * cost of the entering arc 0.
+	 *
+	 * @param uIn		End of the entering arc inside the subtree
+	 * @param vIn		End of the entering arc outside the subtree
+	 * @param in		The entering arc
+	 * @param uOut		Vertex below the leaving arc
+	 */
+	private void reroot(int uIn, int vIn, int in, int uOut)
+	{
+		long rc = this.c[in]+this.pi[this.source[in]]-this.pi[this.target[in]];
+		long sigma = this.source[in]==uIn ? -rc : rc;
+
+		int w = uIn;
+		int newParent = vIn;
+		int newPred = in;
+		while(true)
+		{
+			int oldParent = this.parent[w];
+			int oldPred = this.pred[w];
+			this.removeChild(oldParent, w);
+			this.parent[w] = newParent;
+			this.pred[w] = newPred;
+			this.up[w] = this.source[newPred]==w;
+			this.addChild(newParent, w);
+			if(w==uOut)
+			{
+				break;
+			}
+			newParent = w;
+			newPred = oldPred;
+			w = oldParent;
+		}
+
+		//Update the depths and prices of the subtree
+		int top = 0;
+		this.stack[top++] = uIn;
+		while(top>0)
+		{
+			int v = this.stack[--top];
+			this.depth[v] = this.depth[this.parent[v]]+1;
+			this.pi[v] += sigma;
+			for(int child=this.firstChild[v]; child>=0; child=this.nextSibling[child])
+			{
+				this.stack[top++] = child;
+			}
+		}
+	}
+
+	/**
+	 * Add v to the children of p
+	 */
+	private void addChild(int p, int v)
+	{
+		this.prevSibling[v] = -1;
+		this.nextSibling[v] = this.firstChild[p];
+		if(this.firstChild[p]>=0)
+		{
+			this.prevSibling[this.firstChild[p]] = v;
+		}
+		this.firstChild[p] = v;
+	}
+
+	/**
+	 * Remove v from the children of p
+	 */
+	private void removeChild(int p, int v)
+	{
+		if(this.prevSibling[v]>=0)
+		{
+			this.nextSibling[this.prevSibling[v]] = this.nextSibling[v];
+		}
+		else
+		{
+			this.firstChild[p] = this.nextSibling[v];
+		}
+		if(this.nextSibling[v]>=0)
+		{
+			this.prevSibling[this.nextSibling[v]] = this.prevSibling[v];
+		}
+	}
+
+	/**
+	 * Flow going through edge e after MCFforCPP
+	 */
+	public int flow(Edge e) {
+		return this.flow.get(e);
+	}
+
+	/**
+	 * Capacity of edge e
+	 */
+	public int capacity(Edge e) {
+		return this.capacity.get(e);
+	}
+
+	/**
+	 * Cost per flow of edge e
+	 */
+	public int cost(Edge e) {
+		return this.cost.get(e);
+	}
+}
@@ -0,0 +1,579 @@
+package sxa190016;
+
+import sxa190016.Graph.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Parallel Max Flow: Synchronous parallel push-relabel algorithm to find the Max-Flow through a directed graph.
+ * 							Each round all active vertices push in parallel using the heights of the previous round, so an
+ * 							edge is only changed by the thread owning its tail. Vertices which still have excess are then
+ * 							relabeled in parallel and the new heights applied together. Excess is updated atomically, each
+ * 							thread keeps its own list of vertices activated for the next round, and global relabels are done
+ * 							by a parallel BFS.
+ */
+public class ParallelFlow extends Flow {
+	/**
+	 * Steps run by the worker threads
+	 */
+	private static final int PUSH = 0, RELABEL = 1, APPLY = 2, BFS = 3;
+
+	/**
+	 * Number of vertices a worker takes at a time
+	 */
+	private static final int CHUNK = 64;
+
+	/**
+	 * Steps over fewer vertices than this are run by the calling thread
+	 */
+	private static final int SEQUENTIAL_LIMIT = 1024;
+
+	/**
+	 * Number of worker threads
+	 */
+	private int threads;
+
+	/**
+	 * Stores the height at each vertex
+	 */
+	private int [] height;
+
+	/**
+	 * Stores the new height of the vertices relabeled in the current round
+	 */
+	private int [] newHeight;
+
+	/**
+	 * Stores the excess at each vertex, updated atomically by the pushing threads
+	 */
+	private AtomicIntegerArray atomicExcess;
+
+	/**
+	 * 1 if the vertex is already in the list of active vertices of the next round
+	 */
+	private AtomicIntegerArray inNext;
+
+	/**
+	 * Distance found by the BFS of a global relabel, -1 if not visited yet
+	 */
+	private AtomicIntegerArray mark;
+
+	/**
+	 * Vertices processed by the current step and their number
+	 */
+	private int [] items;
+	private int size;
+
+	/**
+	 * Position of the next chunk of items to be taken by a worker
+	 */
+	private AtomicInteger cursor;
+
+	/**
+	 * The worker threads, each with its own work lists
+	 */
+	private Worker [] workers;
+
+	/**
+	 * The thread pool running the workers
+	 */
+	private ExecutorService pool;
+
+	/**
+	 * Relabel work done since the last global relabel
+	 */
+	private long work;
+
+	/**
+	 * Number of rounds done by the last run
+	 */
+	private int rounds;
+
+	/**
+	 * Constructor using one thread per available processor
+	 *
+	 * @param g			The directed graph
+	 * @param s			The start vertex
+	 * @param t			The sink vertex
+	 * @param capacity	capacity of each edge indexed by edge index
+	 */
+	public ParallelFlow(Graph g, Vertex s, Vertex t, EdgeIntProperty capacity) {
+		this(g, s, t, capacity, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor to initialize the member variables of the parallel flow class
+	 *
+	 * @param g			The directed graph
+	 * @param s			The start vertex
+	 * @param t			The sink vertex
+	 * @param capacity	capacity of each edge indexed by edge index
+	 * @param threads	Number of worker threads
+	 */
+	public ParallelFlow(Graph g, Vertex s, Vertex t, EdgeIntProperty capacity, int threads) {
+		super(g, s, t, capacity);
+		this.threads = Math.max(1, threads);
+		this.height = new int[g.size()];
+		this.newHeight = new int[g.size()];
+		this.atomicExcess = new AtomicIntegerArray(g.size());
+		this.inNext = new AtomicIntegerArray(g.size());
+		this.mark = new AtomicIntegerArray(g.size());
+		this.items = new int[Math.max(g.size(), 1)];
+		this.cursor = new AtomicInteger();
+		this.workers = new Worker[this.threads];
+		for(int i=0; i<this.threads; i++)
+		{
+			this.workers[i] = new Worker();
+		}
+	}
+
+	/**
+	 * Number of rounds done by the last call to preflowPush
+	 *
+	 * @return			The number of rounds
+	 */
+	public int rounds()
+	{
+		return this.rounds;
+	}
+
+	/**
+	 * Decide whether the max flow is at least K. The rounds have no early stop, so the max flow is found
+	 * first and then turned into the same certificate as in Flow.
+	 *
+	 * @param K			The flow value asked for
+	 * @return			true if the max flow is at least K
+	 */
+	@Override
+	public boolean atLeast(int K) {
+		preflowPush();
+		return certify(K);
+	}
+
+	/**
+	 * Find the max-flow by rounds of parallel pushes and relabels
+	 *
+	 * @return			Return max flow found.
+	 */
+	@Override
+	public int preflowPush() {
+		long start = System.nanoTime();
+		this.pool = this.threads>1 ? Executors.newFixedThreadPool(this.threads) : null;
+		try
+		{
+			initialize();
+			this.rounds = 0;
+			while(this.size>0)
+			{
+				//Vertices of this round may be activated again for the next one
+				for(int i=0; i<this.size; i++)
+				{
+					this.inNext.set(this.items[i], 0);
+				}
+
+				//Push from every active vertex, collecting the ones which still have excess
+				runStep(PUSH);
+				int relabeled = gather(true);
+
+				//Relabel them using the heights of this round, then apply the new heights together
+				if(relabeled>0)
+				{
+					runStep(RELABEL);
+					runStep(APPLY);
+				}
+				gather(false);
+
+				//Recompute exact heights once enough relabel work is done
+				for(Worker w: this.workers)
+				{
+					this.work += w.work;
+					w.work = 0;
+					this.stats.pushes += w.pushes;
+					this.stats.nonSaturatingPushes += w.nonSaturatingPushes;
+					this.stats.discharges += w.discharges;
+					this.stats.relabels += w.relabels;
+					this.stats.queuePolls += w.queuePolls;
+					w.pushes = w.nonSaturatingPushes = w.discharges = w.relabels = w.queuePolls = 0;
+				}
+				if(this.globalRelabelFreq>0 && this.work>=this.globalRelabelFreq*(this.csr.n+this.csr.arcSize()))
+				{
+					int [] active = Arrays.copyOf(this.items, this.size);
+					globalRelabel();
+					this.size = active.length;
+					System.arraycopy(active, 0, this.items, 0, active.length);
+				}
+				this.rounds++;
+				this.stats.phases++;
+				if(Trace.ENABLED && this.trace!=null)
+				{
+					this.trace.record(Trace.PHASE, this.rounds, this.size);
+				}
+			}
+		}
+		finally
+		{
+			if(this.pool!=null)
+			{
+				this.pool.shutdown();
+				this.pool = null;
+			}
+		}
+
+		for(int u=0; u<this.csr.n; u++)
+		{
+			this.excess[u] = this.atomicExcess.get(u);
+		}
+
+		this.stats.nanos = System.nanoTime()-start;
+
+		//Return the excess at sink
+		return this.excess[this.t.getIndex()];
+	}
+
+	/**
+	 * Initialize flow and excess to 0, saturate the edges leaving the source and label the height of each vertex
+	 */
+	private void initialize()
+	{
+		this.flow.fill(0);
+		this.side.clear();
+		this.globalRelabels = 0;
+		this.work = 0;
+		this.stats = new SolverStats();
+		for(int u=0; u<this.csr.n; u++)
+		{
+			this.atomicExcess.set(u, 0);
+			this.inNext.set(u, 0);
+		}
+		for(Worker w: this.workers)
+		{
+			w.next.size = 0;
+			w.work = 0;
+		}
+
+		//Push the flow along all the outgoing edges of the source
+		int si = this.s.getIndex();
+		int ti = this.t.getIndex();
+		this.size = 0;
+		for(int a=this.csr.first[si]; a<this.csr.mid[si]; a++)
+		{
+			int c = this.residual(a);
+			if(c==0)
+			{
+				continue;
+			}
+			int v = this.csr.head[a];
+			this.flow.add(this.csr.edge[a], c);
+			this.stats.pushes++;
+			this.atomicExcess.addAndGet(si, -c);
+			this.atomicExcess.addAndGet(v, c);
+			if(v!=si && v!=ti && this.inNext.get(v)==0)
+			{
+				this.inNext.set(v, 1);
+				this.items[this.size++] = v;
+			}
+		}
+
+		int [] active = Arrays.copyOf(this.items, this.size);
+		globalRelabel();
+		this.size = active.length;
+		System.arraycopy(active, 0, this.items, 0, active.length);
+	}
+
+	/**
+	 * Global relabel by a parallel BFS backwards along the residual arcs, first from the sink and then
+	 * from the source. Vertices which reach neither get height 2n-1.
+	 */
+	@Override
+	protected void globalRelabel()
+	{
+		int n = this.csr.n;
+		int si = this.s.getIndex();
+		int ti = this.t.getIndex();
+		for(int u=0; u<n; u++)
+		{
+			this.mark.set(u, -1);
+		}
+		this.mark.set(si, n);
+		this.mark.set(ti, 0);
+		for(int phase=0; phase<2; phase++)
+		{
+			this.size = 1;
+			this.items[0] = phase==0 ? ti : si;
+			while(this.size>0)
+			{
+				runStep(BFS);
+				gather(false);
+			}
+		}
+		for(int u=0; u<n; u++)
+		{
+			int h = this.mark.get(u);
+			this.height[u] = h<0 ? 2*n-1 : h;
+			this.current[u] = this.csr.first[u];
+		}
+		this.work = 0;
+		this.globalRelabels++;
+	}
+
+	/**
+	 * Run a step of the round over the current items, in parallel if there are enough of them
+	 *
+	 * @param step		PUSH, RELABEL, APPLY or BFS
+	 */
+	private void runStep(int step)
+	{
+		this.cursor.set(0);
+		for(Worker w: this.workers)
+		{
+			w.step = step;
+		}
+		if(this.pool==null || this.size<SEQUENTIAL_LIMIT)
+		{
+			this.workers[0].call();
+			return;
+		}
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for(Worker w: this.workers)
+		{
+			tasks.add(w);
+		}
+		try
+		{
+			for(Future<Void> f: this.pool.invokeAll(tasks))
+			{
+				f.get();
+			}
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while computing max flow", e);
+		}
+		catch(ExecutionException e)
+		{
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Concatenate the lists of the workers into the items of the next step
+	 *
+	 * @param relabeled	True to gather the vertices to be relabeled, false for the next active vertices
+	 * @return			The number of items gathered
+	 */
+	private int gather(boolean relabeled)
+	{
+		this.size = 0;
+		for(Worker w: this.workers)
+		{
+			IntBuffer b = relabeled ? w.relabel : w.next;
+			System.arraycopy(b.data, 0, this.items, this.size, b.size);
+			this.size += b.size;
+			b.size = 0;
+		}
+		return this.size;
+	}
+
+	/**
+	 * Push the excess u had at the start of the round along its admissible arcs, starting from its current arc
+	 *
+	 * @param u			Index of the vertex
+	 * @param w			The worker running the push
+	 */
+	private void push(int u, Worker w)
+	{
+		int e = this.atomicExcess.get(u);
+		if(e<=0)
+		{
+			return;
+		}
+		int hu = this.height[u];
+		int end = this.csr.first[u+1];
+		int pushed = 0;
+		w.discharges++;
+		int a = this.current[u];
+		for(; a<end; a++)
+		{
+			int v = this.csr.head[a];
+			if(hu == this.height[v]+1)
+			{
+				int r = this.residual(a);
+				int delta = Math.min(e-pushed, r);
+				if(delta>0)
+				{
+					w.pushes++;
+					if(delta<r)
+					{
+						w.nonSaturatingPushes++;
+					}
+					this.flow.add(this.csr.edge[a], this.csr.forward[a] ? delta : -delta);
+					this.atomicExcess.addAndGet(v, delta);
+					w.activate(v);
+					pushed += delta;
+					if(pushed==e)
+					{
+						break;
+					}
+				}
+			}
+		}
+		this.current[u] = a;
+		int left = this.atomicExcess.addAndGet(u, -pushed);
+		if(a==end)
+		{
+			w.relabel.add(u);
+		}
+		else if(left>0)
+		{
+			w.activate(u);
+		}
+	}
+
+	/**
+	 * Find the new height of u from the heights of this round
+	 *
+	 * @param u			Index of the vertex
+	 * @param w			The worker running the relabel
+	 */
+	private void relabel(int u, Worker w)
+	{
+		int minHeight = 2*this.csr.n-2;
+		for(int a=this.csr.first[u]; a<this.csr.first[u+1]; a++)
+		{
+			if(this.residual(a)>0)
+			{
+				minHeight = Math.min(minHeight, this.height[this.csr.head[a]]);
+			}
+		}
+		this.newHeight[u] = minHeight+1;
+		this.current[u] = this.csr.first[u];
+		w.work += this.csr.first[u+1]-this.csr.first[u]+1;
+		w.relabels++;
+	}
+
+	/**
+	 * Visit the vertices which reach u by a residual arc and are not labeled yet
+	 *
+	 * @param u			Index of the vertex
+	 * @param w			The worker running the BFS
+	 */
+	private void visit(int u, Worker w)
+	{
+		int d = this.mark.get(u)+1;
+		for(int a=this.csr.first[u]; a<this.csr.first[u+1]; a++)
+		{
+			int v = this.csr.head[a];
+			if(this.mark.get(v)<0 && this.residual(this.csr.rev[a])>0 && this.mark.compareAndSet(v, -1, d))
+			{
+				w.next.add(v);
+			}
+		}
+	}
+
+	/**
+	 * A worker thread with its own lists of vertices for the next step
+	 */
+	private class Worker implements Callable<Void> {
+		/**
+		 * Vertices activated for the next round, or visited by the BFS
+		 */
+		IntBuffer next = new IntBuffer();
+
+		/**
+		 * Vertices to be relabeled in this round
+		 */
+		IntBuffer relabel = new IntBuffer();
+
+		/**
+		 * Relabel work done by this worker
+		 */
+		long work;
+
+		/**
+		 * Operations done by this worker since they were last added to the stats
+		 */
+		long pushes, nonSaturatingPushes, discharges, relabels;
+
+		/**
+		 * Active vertices taken by this worker in the push steps since they were last added to the stats
+		 */
+		long queuePolls;
+
+		/**
+		 * The step being run
+		 */
+		int step;
+
+		/**
+		 * Add v to the active vertices of the next round if no other worker has added it
+		 */
+		void activate(int v) {
+			if(v!=s.getIndex() && v!=t.getIndex() && inNext.get(v)==0 && inNext.compareAndSet(v, 0, 1))
+			{
+				this.next.add(v);
+			}
+		}
+
+		/**
+		 * Take chunks of the items until all of them are done
+		 */
+		public Void call() {
+			int begin;
+			while((begin = cursor.getAndAdd(CHUNK))<size)
+			{
+				int end = Math.min(begin+CHUNK, size);
+				for(int i=begin; i<end; i++)
+				{
+					int u = items[i];
+					switch(this.step)
+					{
+					case PUSH:
+						this.queuePolls++;
+						push(u, this);
+						break;
+					case RELABEL:
+						relabel(u, this);
+						break;
+					case APPLY:
+						height[u] = newHeight[u];
+						activate(u);
+						break;
+					default:
+						visit(u, this);
+					}
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Growable array of ints
+	 */
+	private static class IntBuffer {
+		int [] data = new int[16];
+		int size = 0;
+
+		void add(int x) {
+			if(this.size==this.data.length)
+			{
+				this.data = Arrays.copyOf(this.data, 2*this.size);
+			}
+			this.data[this.size++] = x;
+		}
+	}
+}
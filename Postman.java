@@ -33,12 +33,12 @@ public class Postman {
 	/**
 	 * The capacity for each edge
 	 */
-	protected HashMap<Edge, Integer> capacity; 
+	protected EdgeIntProperty capacity; 
 	
 	/**
 	 * The cost for each edge
 	 */
-	protected HashMap<Edge, Integer> cost;
+	protected EdgeIntProperty cost;
 	
 	/**
 	 * The list of edges which constitute a tour
@@ -60,6 +60,17 @@ public class Postman {
 	 */
 	public int VERBOSE;
 	
+	/**
+	 * Sink of the events of the min-cost flow, null to record none
+	 */
+	protected Trace trace;
+
+	/**
+	 * Engine of the min-cost flow: "scaling" for MinCostFlow, "simplex" for NetworkSimplex, "ssp" for
+	 * SuccessiveShortestPaths or "auto" to let MinCostFlowSolver.select choose
+	 */
+	protected String engine;
+	
 	/**
 	 * Constructor to initialize the member variables
 	 * 
@@ -76,12 +87,35 @@ public class Postman {
      * @param startVertex	The start vertex of the tour
      */
 	public Postman(Graph g, Vertex startVertex) {
+		this(g, startVertex, null);
+	}
+
+    /**
+     * Constructor to initialize the member variables
+     * 
+     * @param g		The input graph g
+     * @param startVertex	The start vertex of the tour
+     * @param trace	Sink of the events of the min-cost flow, null to record none
+     */
+	public Postman(Graph g, Vertex startVertex, Trace trace) {
+		this(g, startVertex, trace, "auto");
+	}
+
+    /**
+     * Constructor to initialize the member variables
+     * 
+     * @param g		The input graph g
+     * @param startVertex	The start vertex of the tour
+     * @param trace	Sink of the events of the min-cost flow, null to record none
+     * @param engine	Engine of the min-cost flow: "scaling", "simplex", "ssp" or "auto"
+     */
+	public Postman(Graph g, Vertex startVertex, Trace trace, String engine) {
 		this.VERBOSE = 0;
+		this.trace = trace;
+		this.engine = engine;
     	this.g = g;
     	this.startVertex = startVertex;
     	this.supply = new int [this.g.size()+2];
-    	this.capacity = new HashMap<Edge, Integer>();
-    	this.cost = new HashMap<Edge, Integer>();
     	this.tour = new LinkedList<Edge>();
     	this.tourCost = 0L;
     	this.edgeDict = new HashMap<String, Edge>();
@@ -94,7 +128,14 @@ public class Postman {
 	 * Make the original graph Eulerian
 	 */
     public void makeEulerian()
-    {    	
+    {
+    	SolverEvents.MakeEulerian event = SolverEvents.ENABLED ? new SolverEvents.MakeEulerian() : null;
+    	if(event!=null)
+    	{
+    		event.begin();
+    	}
+    	int edges = this.g.edgeSize();
+    	
     	// create an augmented graph instance with extra source and sink
     	Graph aug_g = new Graph(this.g.size()+2, true);
     	for(Edge e : this.g.getEdgeArray())
@@ -108,6 +149,7 @@ public class Postman {
     	}
     	
     	int maxCapacity = 0;
+    	int extraEdges = 0;
     	for(Vertex v: this.g.getVertexArray())
     	{
     		int supply = v.inDegree()-v.outDegree();
@@ -116,8 +158,16 @@ public class Postman {
     		{
     			maxCapacity += supply;
     		}
+    		if(supply!=0)
+    		{
+    			extraEdges++;
+    		}
     	}
     	
+    	//Edge properties for the augmented graph including the extra edges
+    	this.capacity = new EdgeIntProperty(aug_g.edgeSize()+extraEdges);
+    	this.cost = new EdgeIntProperty(aug_g.edgeSize()+extraEdges);
+    	
     	for(Edge e : aug_g.getEdgeArray())
     	{
     		this.cost.put(e, e.getWeight());
@@ -162,8 +212,27 @@ public class Postman {
         	System.out.println();
     	}
     	
-    	//Initialize the MinCostFlow class with augmented graph
-    	MinCostFlow mcf = new MinCostFlow(aug_g, aug_g.getVertex(aug_g.size()-1), aug_g.getVertex(aug_g.size()), this.capacity, this.cost);
+    	//Initialize the min-cost flow engine with augmented graph
+    	Vertex src = aug_g.getVertex(aug_g.size()-1);
+    	Vertex sink = aug_g.getVertex(aug_g.size());
+    	MinCostFlowSolver mcf;
+    	if(this.engine.equals("simplex"))
+    	{
+    		mcf = new NetworkSimplex(aug_g, this.capacity, this.cost);
+    	}
+    	else if(this.engine.equals("ssp"))
+    	{
+    		mcf = new SuccessiveShortestPaths(aug_g, this.capacity, this.cost);
+    	}
+    	else if(this.engine.equals("scaling"))
+    	{
+    		mcf = new MinCostFlow(aug_g, src, sink, this.capacity, this.cost);
+    	}
+    	else
+    	{
+    		mcf = MinCostFlowSolver.select(aug_g, src, sink, this.capacity, this.cost, this.supply);
+    	}
+    	mcf.setTrace(this.trace);
 
     	//Find minimum cost flow
     	long result = mcf.MCFforCPP(this.supply);
@@ -185,6 +254,14 @@ public class Postman {
     	{
         	this.g.printGraph(true);
     	}
+    	if(event!=null && event.shouldCommit())
+    	{
+    		event.vertices = this.g.size();
+    		event.edges = edges;
+    		event.addedEdges = this.g.edgeSize()-edges;
+    		event.cost = result;
+    		event.commit();
+    	}
     }
     
     /**
@@ -20,6 +20,17 @@ public class PostmanDriver {
 	 */
 	static int VERBOSE = 1;
 
+	/**
+	 * File to write the trace of the min-cost flow to, null for no trace
+	 */
+	static String TRACE = null;
+
+	/**
+	 * Engine of the min-cost flow: "scaling" for cost scaling, "simplex" for network simplex, "ssp" for successive
+	 * shortest paths or "auto" to choose by size and supply
+	 */
+	static String ENGINE = "auto";
+
 	/**
 	 * The main method of the class
 	 * 
@@ -34,12 +45,16 @@ public class PostmanDriver {
 		Graph g = Graph.readDirectedGraph(in);
 		
 		if(args.length > 0) { VERBOSE = Integer.parseInt(args[0]); }
+		if(args.length > 1 && !args[1].equals("-")) { TRACE = args[1]; }
+		if(args.length > 2) { ENGINE = args[2]; }
 
 		//Set the timer
 		Timer timer = new Timer();
 		
-		//Create an object of the Postman class
-		Postman p = new Postman(g);
+		//Create an object of the Postman class, recording the trace if asked
+		Trace trace = TRACE != null ? new Trace.BinaryFile(TRACE) : null;
+		Postman p = new Postman(g, g.size() > 0 ? g.getVertex(1) : null, trace, ENGINE);
+		if(trace != null) { trace.close(); }
 		
 		//Find the min-cost of the tour which covers all edges
 		long result = p.postmanTour();
@@ -0,0 +1,178 @@
+// Benchmark of excess scaling against FIFO and highest-label push-relabel
+package sxa190016;
+
+import sxa190016.Graph.Vertex;
+import java.util.Random;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Scaling Benchmark: Compare the pushes, the non-saturating pushes and the time of FIFO, highest-label and excess-scaling preflow push
+ * 							on random graphs whose capacities range from 1 to MAX_CAPACITY, spread evenly on a log scale.
+ * 							Three families are run: "random" graphs, "grid" graphs whose columns are joined by the
+ * 							source and the sink, and "bottleneck" graphs where the source sends far more to every
+ * 							vertex than the sink can take, so most of the excess has to go back.
+ */
+public class ScalingBenchmark {
+	/**
+	 * Number of vertices of each graph, about
+	 */
+	static int N = 3600;
+
+	/**
+	 * Largest capacity
+	 */
+	static int MAX_CAPACITY = 1000000000;
+
+	/**
+	 * A global relabel is done after GLOBAL_RELABEL*(n+2m) units of relabel work, 0 to disable
+	 */
+	static double GLOBAL_RELABEL = 0;
+
+	/**
+	 * Number of graphs of each family
+	 */
+	static int GRAPHS = 3;
+
+	/**
+	 * Random numbers for the graphs and the capacities
+	 */
+	static Random random = new Random(1);
+
+	/**
+	 * The main method of the class
+	 *
+	 * @param args			Optional N, MAX_CAPACITY, GLOBAL_RELABEL and GRAPHS
+	 */
+	public static void main(String[] args) {
+		if (args.length > 0) {
+			N = Integer.parseInt(args[0]);
+		}
+		if (args.length > 1) {
+			MAX_CAPACITY = Integer.parseInt(args[1]);
+		}
+		if (args.length > 2) {
+			GLOBAL_RELABEL = Double.parseDouble(args[2]);
+		}
+		if (args.length > 3) {
+			GRAPHS = Integer.parseInt(args[3]);
+		}
+		String[] modes = { "fifo", "hl", "scaling" };
+		System.out.println("capacities 1.." + MAX_CAPACITY + ", global relabel " + GLOBAL_RELABEL + ", average of "
+				+ GRAPHS + " graphs");
+		for (String family : new String[] { "random", "grid", "bottleneck" }) {
+			long[] pushes = new long[modes.length];
+			long[] nonSaturating = new long[modes.length];
+			long[] time = new long[modes.length];
+			Graph g = null;
+			for (int i = 0; i < GRAPHS; i++) {
+				g = makeGraph(family);
+				EdgeIntProperty capacity = new EdgeIntProperty(g);
+				for (int k = 0; k < capacity.size(); k++) {
+					capacity.set(k, randomCapacity());
+				}
+				Vertex s = g.getVertex(1);
+				Vertex t = g.getVertex(2);
+				if (family.equals("bottleneck")) {
+					//The edges into the sink are narrow
+					for (Graph.Edge e : g.inEdges(t)) {
+						capacity.put(e, 1 + random.nextInt(1000));
+					}
+				}
+
+				int expected = -1;
+				for (int m = 0; m < modes.length; m++) {
+					Flow f = new Flow(g, s, t, capacity);
+					f.setGlobalRelabelFrequency(GLOBAL_RELABEL);
+					if (modes[m].equals("hl")) {
+						f.setActiveVertices(new ActiveVertices.HighestLabel(g.size()));
+					}
+					if (modes[m].equals("scaling")) {
+						f.setExcessScaling(true);
+					}
+					long start = System.nanoTime();
+					int value = f.preflowPush();
+					time[m] += System.nanoTime() - start;
+					pushes[m] += f.pushes();
+					nonSaturating[m] += f.nonSaturatingPushes();
+					if (expected >= 0 && value != expected) {
+						throw new IllegalStateException(modes[m] + " found " + value + " instead of " + expected);
+					}
+					expected = value;
+				}
+			}
+
+			//Print the average pushes, non-saturating pushes and time of each mode
+			System.out.println(family + " (n=" + g.size() + " m=" + g.edgeSize() + ")");
+			for (int m = 0; m < modes.length; m++) {
+				System.out.println("  " + modes[m] + ": pushes " + pushes[m] / GRAPHS + ", non-saturating "
+						+ nonSaturating[m] / GRAPHS + ", " + time[m] / GRAPHS / 1000000 + " msec");
+			}
+		}
+	}
+
+	/**
+	 * Make a graph of the family with about N vertices. The source is vertex 1 and the sink vertex 2.
+	 *
+	 * @param family		"random", "grid" or "bottleneck"
+	 * @return				The graph
+	 */
+	static Graph makeGraph(String family) {
+		if (family.equals("grid")) {
+			int side = (int) Math.sqrt(N);
+			Graph g = new Graph(side * side + 2, true);
+			int name = 1;
+			for (int i = 0; i < side; i++) {
+				for (int j = 0; j < side; j++) {
+					int u = 3 + i * side + j;
+					if (j == 0) {
+						g.addEdge(g.getVertex(1), g.getVertex(u), 1, name++);
+					}
+					if (j == side - 1) {
+						g.addEdge(g.getVertex(u), g.getVertex(2), 1, name++);
+					} else {
+						g.addEdge(g.getVertex(u), g.getVertex(u + 1), 1, name++);
+					}
+					if (i + 1 < side) {
+						g.addEdge(g.getVertex(u), g.getVertex(u + side), 1, name++);
+						g.addEdge(g.getVertex(u + side), g.getVertex(u), 1, name++);
+					}
+				}
+			}
+			return g;
+		}
+		Graph g = new Graph(N, true);
+		int name = 1;
+		if (family.equals("bottleneck")) {
+			for (int u = 3; u <= N; u++) {
+				g.addEdge(g.getVertex(1), g.getVertex(u), 1, name++);
+				g.addEdge(g.getVertex(u), g.getVertex(2), 1, name++);
+			}
+		} else {
+			//A path from the source to the sink so that the flow is not trivially 0
+			g.addEdge(g.getVertex(1), g.getVertex(3), 1, name++);
+			for (int u = 3; u < N; u++) {
+				g.addEdge(g.getVertex(u), g.getVertex(u + 1), 1, name++);
+			}
+			g.addEdge(g.getVertex(N), g.getVertex(2), 1, name++);
+		}
+		int edges = name - 1 + 3 * N;
+		while (name <= edges) {
+			int u = 1 + random.nextInt(N);
+			int v = 1 + random.nextInt(N);
+			if (u != v) {
+				g.addEdge(g.getVertex(u), g.getVertex(v), 1, name++);
+			}
+		}
+		return g;
+	}
+
+	/**
+	 * A capacity between 1 and MAX_CAPACITY, spread evenly on a log scale
+	 */
+	static int randomCapacity() {
+		return (int) Math.max(1, Math.round(Math.pow(MAX_CAPACITY, random.nextDouble())));
+	}
+}
@@ -0,0 +1,159 @@
+package sxa190016;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Solver Events: Java Flight Recorder events of the main phases of the solvers, so that their time shows up
+ * 							in a recording next to the GC and allocation data. Each event has the size of the graph and
+ * 							the work done in the phase. The first event created in a JVM costs about 300 ms of
+ * 							class loading and instrumentation even when no recording is running, so the solvers
+ * 							only create events when the flight recorder was started with the JVM.
+ */
+public class SolverEvents {
+	/**
+	 * True if the flight recorder was running when the solvers were loaded, as with -XX:StartFlightRecording.
+	 * A recording started later, from jcmd, gets no solver events.
+	 */
+	public static final boolean ENABLED = FlightRecorder.isInitialized();
+
+	/**
+	 * Flow.initialize: zero the flow, label the heights and saturate the edges leaving the source
+	 */
+	@Name("sxa190016.FlowInitialize")
+	@Label("Flow Initialize")
+	@Category({ "Flow Solvers", "Max Flow" })
+	@Description("Initialization of preflow push")
+	public static class Initialize extends Event {
+		@Label("Vertices")
+		public int vertices;
+
+		@Label("Edges")
+		public int edges;
+
+		@Label("Active Vertices")
+		@Description("Vertices given excess by the source")
+		public int active;
+
+		@Label("Source Flow")
+		public long sourceFlow;
+	}
+
+	/**
+	 * Flow.initHeight: BFS from the sink along the incoming edges
+	 */
+	@Name("sxa190016.FlowInitHeight")
+	@Label("Flow Initial Heights")
+	@Category({ "Flow Solvers", "Max Flow" })
+	@Description("BFS from the sink giving the initial heights")
+	public static class InitHeight extends Event {
+		@Label("Vertices")
+		public int vertices;
+
+		@Label("Edges")
+		public int edges;
+
+		@Label("Labeled Vertices")
+		@Description("Vertices which reach the sink, including it")
+		public int labeled;
+	}
+
+	/**
+	 * MinCostFlow.refine: make the flow epsilon optimal
+	 */
+	@Name("sxa190016.Refine")
+	@Label("Cost Scaling Refine")
+	@Category({ "Flow Solvers", "Min Cost Flow" })
+	@Description("One refine of cost scaling")
+	public static class Refine extends Event {
+		@Label("Vertices")
+		public int vertices;
+
+		@Label("Edges")
+		public int edges;
+
+		@Label("Epsilon")
+		@Description("In units of the costs times n+1")
+		public long epsilon;
+
+		@Label("Pushes")
+		public long pushes;
+
+		@Label("Relabels")
+		public long relabels;
+
+		@Label("Discharges")
+		public long discharges;
+	}
+
+	/**
+	 * Postman.makeEulerian: add the cheapest copies of edges making the graph Eulerian
+	 */
+	@Name("sxa190016.MakeEulerian")
+	@Label("Make Eulerian")
+	@Category({ "Flow Solvers", "Postman" })
+	@Description("Min-cost flow balancing the degrees of the postman graph")
+	public static class MakeEulerian extends Event {
+		@Label("Vertices")
+		public int vertices;
+
+		@Label("Edges")
+		@Description("Edges of the graph before the copies are added")
+		public int edges;
+
+		@Label("Added Edges")
+		public int addedEdges;
+
+		@Label("Cost")
+		@Description("Cost of the added edges")
+		public long cost;
+	}
+
+	/**
+	 * Euler.findEulerTour: Hierholzer's walk
+	 */
+	@Name("sxa190016.EulerTour")
+	@Label("Euler Tour")
+	@Category({ "Flow Solvers", "Postman" })
+	@Description("Check of the degrees and connectivity, and the walk of the tour")
+	public static class EulerTour extends Event {
+		@Label("Vertices")
+		public int vertices;
+
+		@Label("Edges")
+		public int edges;
+
+		@Label("Eulerian")
+		public boolean eulerian;
+
+		@Label("Tour Length")
+		@Description("Vertices on the tour, 0 if the graph is not Eulerian")
+		public int tourLength;
+	}
+
+	/**
+	 * DFS.SCC_Vertex: Kosaraju's two depth first searches
+	 */
+	@Name("sxa190016.StronglyConnectedComponents")
+	@Label("Strongly Connected Components")
+	@Category({ "Flow Solvers", "Postman" })
+	@Description("Strongly connected components by two depth first searches")
+	public static class StronglyConnectedComponents extends Event {
+		@Label("Vertices")
+		public int vertices;
+
+		@Label("Edges")
+		public int edges;
+
+		@Label("Components")
+		public int components;
+	}
+}
@@ -0,0 +1,208 @@
+package sxa190016;
+
+import java.util.Arrays;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Solver Stats: Operation counts of one run of Flow, ParallelFlow or MinCostFlow, and the epsilon and
+ * 							wall time of each refine phase of the cost scaling. They are given by stats() after the
+ * 							run, and can be exported in the Prometheus text format to be scraped from batch jobs.
+ */
+public class SolverStats {
+	/**
+	 * Pushes done, and how many of them left the arc with residual capacity
+	 */
+	long pushes;
+	long nonSaturatingPushes;
+
+	/**
+	 * Relabels done, not counting global relabels
+	 */
+	long relabels;
+
+	/**
+	 * Vertices discharged
+	 */
+	long discharges;
+
+	/**
+	 * Vertices taken from the queue of active vertices, including the ones skipped
+	 */
+	long queuePolls;
+
+	/**
+	 * Global relabels, or price updates of MinCostFlow, and gaps found
+	 */
+	long globalRelabels;
+	long gaps;
+
+	/**
+	 * Phases done: excess-scaling phases of Flow, rounds of ParallelFlow or refines of MinCostFlow
+	 */
+	int phases;
+
+	/**
+	 * Epsilon, in units of the costs times n+1, and wall time in nanoseconds of each refine
+	 */
+	private long [] epsilon = new long[8];
+	private long [] refineNanos = new long[8];
+	private int refines;
+
+	/**
+	 * Wall time in nanoseconds of the whole run
+	 */
+	long nanos;
+
+	/**
+	 * Add a refine phase
+	 *
+	 * @param e			Its epsilon
+	 * @param nanos		Its wall time in nanoseconds
+	 */
+	void addRefine(long e, long nanos)
+	{
+		if(this.refines==this.epsilon.length)
+		{
+			this.epsilon = Arrays.copyOf(this.epsilon, 2*this.refines);
+			this.refineNanos = Arrays.copyOf(this.refineNanos, 2*this.refines);
+		}
+		this.epsilon[this.refines] = e;
+		this.refineNanos[this.refines++] = nanos;
+		this.phases++;
+	}
+
+	public long pushes() {
+		return this.pushes;
+	}
+
+	public long nonSaturatingPushes() {
+		return this.nonSaturatingPushes;
+	}
+
+	public long saturatingPushes() {
+		return this.pushes-this.nonSaturatingPushes;
+	}
+
+	public long relabels() {
+		return this.relabels;
+	}
+
+	public long discharges() {
+		return this.discharges;
+	}
+
+	public long queuePolls() {
+		return this.queuePolls;
+	}
+
+	public long globalRelabels() {
+		return this.globalRelabels;
+	}
+
+	public long gaps() {
+		return this.gaps;
+	}
+
+	public int phases() {
+		return this.phases;
+	}
+
+	/**
+	 * Number of refine phases
+	 */
+	public int refines() {
+		return this.refines;
+	}
+
+	/**
+	 * Epsilon of refine phase i, from 0, in units of the costs times n+1
+	 */
+	public long epsilon(int i) {
+		return this.epsilon[i];
+	}
+
+	/**
+	 * Wall time in milliseconds of refine phase i, from 0
+	 */
+	public double refineMillis(int i) {
+		return this.refineNanos[i]/1e6;
+	}
+
+	/**
+	 * Wall time in milliseconds of the whole run
+	 */
+	public double millis() {
+		return this.nanos/1e6;
+	}
+
+	/**
+	 * The stats in the Prometheus text exposition format
+	 *
+	 * @param labels	Labels added to every sample, such as job="nightly",graph="roads", or "" for none
+	 * @return			One HELP, TYPE and sample line for each counter, and a sample for each refine phase
+	 */
+	public String toPrometheus(String labels) {
+		StringBuilder sb = new StringBuilder();
+		metric(sb, "flow_pushes_total", "counter", "Pushes done", labels, this.pushes);
+		metric(sb, "flow_non_saturating_pushes_total", "counter", "Pushes which left the arc with residual capacity", labels, this.nonSaturatingPushes);
+		metric(sb, "flow_relabels_total", "counter", "Relabels done, not counting global relabels", labels, this.relabels);
+		metric(sb, "flow_discharges_total", "counter", "Vertices discharged", labels, this.discharges);
+		metric(sb, "flow_queue_polls_total", "counter", "Vertices taken from the queue of active vertices", labels, this.queuePolls);
+		metric(sb, "flow_global_relabels_total", "counter", "Global relabels or price updates done", labels, this.globalRelabels);
+		metric(sb, "flow_gaps_total", "counter", "Gaps found", labels, this.gaps);
+		metric(sb, "flow_phases_total", "counter", "Scaling phases, parallel rounds or refines done", labels, this.phases);
+		metric(sb, "flow_run_seconds", "gauge", "Wall time of the run", labels, this.nanos/1e9);
+		if(this.refines>0)
+		{
+			sb.append("# HELP flow_refine_seconds Wall time of each refine phase of the cost scaling\n");
+			sb.append("# TYPE flow_refine_seconds gauge\n");
+			for(int i=0; i<this.refines; i++)
+			{
+				String l = "phase=\""+(i+1)+"\",epsilon=\""+this.epsilon[i]+"\"";
+				sb.append("flow_refine_seconds{").append(labels.isEmpty() ? l : labels+","+l).append("} ")
+					.append(this.refineNanos[i]/1e9).append('\n');
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * The stats in the Prometheus text exposition format, without labels
+	 */
+	public String toPrometheus() {
+		return toPrometheus("");
+	}
+
+	/**
+	 * Append the HELP, TYPE and sample lines of one metric
+	 */
+	private static void metric(StringBuilder sb, String name, String type, String help, String labels, double value)
+	{
+		sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+		sb.append(name);
+		if(!labels.isEmpty())
+		{
+			sb.append('{').append(labels).append('}');
+		}
+		sb.append(' ');
+		if(value==Math.rint(value) && Math.abs(value)<1e15)
+		{
+			sb.append((long) value);
+		}
+		else
+		{
+			sb.append(value);
+		}
+		sb.append('\n');
+	}
+
+	public String toString() {
+		return "pushes: "+this.pushes+" ("+this.nonSaturatingPushes+" non-saturating), relabels: "+this.relabels
+				+", discharges: "+this.discharges+", queue polls: "+this.queuePolls+", global relabels: "
+				+this.globalRelabels+", gaps: "+this.gaps+", phases: "+this.phases+", "+millis()+" msec";
+	}
+}
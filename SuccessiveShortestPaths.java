@@ -0,0 +1,625 @@
+package sxa190016;
+
+import sxa190016.Graph.*;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Successive Shortest Paths: Find the min-cost flow meeting the supply and demand of each vertex by
+ * 							augmenting along shortest paths from the vertices with an excess to the ones with a
+ * 							deficit, with capacity scaling. In the phase of delta only arcs with at least delta of
+ * 							residual capacity are used, so each path carries at least delta. Johnson potentials keep
+ * 							the reduced costs non-negative for a Dijkstra search with a pairing heap, which stops at
+ * 							the first deficit it scans. The work grows with the total supply rather than the graph,
+ * 							which suits Postman graphs with few unbalanced vertices.
+ */
+public class SuccessiveShortestPaths implements MinCostFlowSolver {
+	/**
+	 * The CSR view of the graph
+	 */
+	private CSRGraph csr;
+
+	/**
+	 * Contains the capacity of all the edges
+	 */
+	private EdgeIntProperty capacity;
+
+	/**
+	 * Contains the cost per flow of all the edges
+	 */
+	private EdgeIntProperty cost;
+
+	/**
+	 * Stores the flow through all the edges
+	 */
+	private EdgeIntProperty flow;
+
+	/**
+	 * Supply not yet sent of each vertex, negative for demand not yet met
+	 */
+	private long [] excess;
+
+	/**
+	 * Johnson potential of each vertex: the reduced cost of arc a is its cost+pi[tail]-pi[head]
+	 */
+	private long [] pi;
+
+	/**
+	 * Distance of each vertex found by the search, and the arc it was reached by
+	 */
+	private long [] dist;
+	private int [] predArc;
+
+	/**
+	 * State of each vertex in the search: 0 unseen, 1 in the heap, 2 scanned
+	 */
+	private byte [] state;
+
+	/**
+	 * Vertices seen by the search, to reset them after it
+	 */
+	private int [] seen;
+	private int seenCount;
+
+	/**
+	 * Vertices with an excess and with a deficit at the start of the phase. Only the ends of the paths change
+	 * their excess within a phase, so the ones still left are found among them.
+	 */
+	private int [] sources;
+	private int sourceCount;
+	private int [] sinks;
+	private int sinkCount;
+
+	/**
+	 * End of the path found by the last search
+	 */
+	private int target;
+
+	/**
+	 * Current arc of each vertex in the walk along arcs of reduced cost 0, the round in which it was set, and
+	 * whether the vertex is dead or on the walk in that round
+	 */
+	private int [] current;
+	private int [] round;
+	private int rounds;
+	private boolean [] dead;
+	private boolean [] onPath;
+
+	/**
+	 * Arcs of the walk from its start
+	 */
+	private int [] path;
+
+	/**
+	 * The heap of the search
+	 */
+	private PairingHeap heap;
+
+	/**
+	 * Number of paths augmented and of vertices scanned by the last run
+	 */
+	private long augmentations;
+	private long scans;
+
+	/**
+	 * Min-heap of vertices keyed by distance, with decrease-key, kept in arrays indexed by vertex
+	 */
+	private static class PairingHeap {
+		/**
+		 * Key of each vertex
+		 */
+		private long [] key;
+
+		/**
+		 * First child, next sibling, and previous sibling or parent for a first child, -1 for none
+		 */
+		private int [] child;
+		private int [] next;
+		private int [] prev;
+
+		/**
+		 * The vertex with the smallest key, -1 if the heap is empty
+		 */
+		private int root = -1;
+
+		/**
+		 * Children of the root being paired by poll
+		 */
+		private int [] pairs;
+
+		PairingHeap(int n) {
+			this.key = new long[n];
+			this.child = new int[n];
+			this.next = new int[n];
+			this.prev = new int[n];
+			this.pairs = new int[n];
+		}
+
+		boolean isEmpty() {
+			return this.root<0;
+		}
+
+		void clear() {
+			this.root = -1;
+		}
+
+		void add(int v, long k) {
+			this.key[v] = k;
+			this.child[v] = -1;
+			this.next[v] = -1;
+			this.prev[v] = -1;
+			this.root = this.root<0 ? v : this.link(this.root, v);
+		}
+
+		/**
+		 * Lower the key of a vertex in the heap, cutting its subtree off and linking it with the root
+		 */
+		void decrease(int v, long k) {
+			this.key[v] = k;
+			if(v==this.root)
+			{
+				return;
+			}
+			int p = this.prev[v];
+			if(this.child[p]==v)
+			{
+				this.child[p] = this.next[v];
+			}
+			else
+			{
+				this.next[p] = this.next[v];
+			}
+			if(this.next[v]>=0)
+			{
+				this.prev[this.next[v]] = p;
+			}
+			this.next[v] = -1;
+			this.prev[v] = -1;
+			this.root = this.link(this.root, v);
+		}
+
+		/**
+		 * Remove the vertex with the smallest key, pairing its children left to right and then linking the pairs
+		 * right to left
+		 */
+		int poll() {
+			int r = this.root;
+			int count = 0;
+			for(int c=this.child[r]; c>=0; )
+			{
+				int n = this.next[c];
+				this.next[c] = -1;
+				this.prev[c] = -1;
+				this.pairs[count++] = c;
+				c = n;
+			}
+			int pairCount = 0;
+			for(int i=0; i+1<count; i+=2)
+			{
+				this.pairs[pairCount++] = this.link(this.pairs[i], this.pairs[i+1]);
+			}
+			if(count%2==1)
+			{
+				this.pairs[pairCount++] = this.pairs[count-1];
+			}
+			int result = -1;
+			for(int i=pairCount-1; i>=0; i--)
+			{
+				result = result<0 ? this.pairs[i] : this.link(this.pairs[i], result);
+			}
+			this.root = result;
+			return r;
+		}
+
+		/**
+		 * Make the root with the larger key the first child of the other
+		 */
+		private int link(int a, int b) {
+			if(this.key[b]<this.key[a])
+			{
+				int t = a;
+				a = b;
+				b = t;
+			}
+			this.next[b] = this.child[a];
+			if(this.child[a]>=0)
+			{
+				this.prev[this.child[a]] = b;
+			}
+			this.prev[b] = a;
+			this.child[a] = b;
+			return a;
+		}
+	}
+
+	/**
+	 * Constructor to initialize the member variables
+	 *
+	 * @param g			The directed graph
+	 * @param capacity	Capacity of each edge indexed by edge index
+	 * @param cost		Cost per flow of each edge indexed by edge index
+	 */
+	public SuccessiveShortestPaths(Graph g, EdgeIntProperty capacity, EdgeIntProperty cost) {
+		this.csr = new CSRGraph(g);
+		this.capacity = capacity;
+		this.cost = cost;
+		this.flow = new EdgeIntProperty(g);
+		this.excess = new long[this.csr.n];
+		this.pi = new long[this.csr.n];
+		this.dist = new long[this.csr.n];
+		this.predArc = new int[this.csr.n];
+		this.state = new byte[this.csr.n];
+		this.seen = new int[this.csr.n];
+		this.sources = new int[this.csr.n];
+		this.sinks = new int[this.csr.n];
+		this.heap = new PairingHeap(this.csr.n);
+		this.current = new int[this.csr.n];
+		this.round = new int[this.csr.n];
+		this.dead = new boolean[this.csr.n];
+		this.onPath = new boolean[this.csr.n];
+		this.path = new int[this.csr.n];
+	}
+
+	/**
+	 * Find the min-cost flow meeting the supply and demand of each vertex
+	 *
+	 * @param supply	The supply of each vertex indexed by vertex index, negative for a demand
+	 * @return			The cost of the flow
+	 */
+	public long MCFforCPP(int [] supply) {
+		this.flow.fill(0);
+		this.augmentations = 0;
+		this.scans = 0;
+		long max = 1;
+		for(int u=0; u<this.csr.n; u++)
+		{
+			this.excess[u] = supply[u];
+			this.pi[u] = 0;
+			this.state[u] = 0;
+			max = Math.max(max, Math.abs(this.excess[u]));
+		}
+		max = Math.max(max, this.capacity.max());
+
+		//The phases of delta, from the highest power of 2 not above the largest capacity or supply down to 1
+		for(long delta=Long.highestOneBit(max); delta>=1; delta/=2)
+		{
+			this.saturate(delta);
+			this.collectEnds(delta);
+			while(this.search(delta))
+			{
+				this.augment();
+				this.augmentAdmissible(delta);
+			}
+		}
+
+		for(int u=0; u<this.csr.n; u++)
+		{
+			if(this.excess[u]!=0)
+			{
+				throw new IllegalArgumentException("The demand of the vertices cannot be met");
+			}
+		}
+		long result = 0;
+		for(int k=0; k<this.csr.m; k++)
+		{
+			result += (long) this.flow.get(k)*this.cost.get(k);
+		}
+		return result;
+	}
+
+	/**
+	 * Number of paths augmented by the last call to MCFforCPP
+	 */
+	public long augmentations() {
+		return this.augmentations;
+	}
+
+	/**
+	 * Number of vertices scanned by the searches of the last call to MCFforCPP
+	 */
+	public long scans() {
+		return this.scans;
+	}
+
+	/**
+	 * Saturate the arcs with at least delta of residual capacity and a negative reduced cost, so that the searches
+	 * of the phase see only non-negative reduced costs. In the first phase these are the edges of negative cost.
+	 *
+	 * @param delta		Smallest residual capacity of an arc used in the phase
+	 */
+	private void saturate(long delta)
+	{
+		for(int a=0; a<this.csr.arcSize(); a++)
+		{
+			int r = this.residual(a);
+			if(r>=delta && this.reducedCost(a)<0)
+			{
+				this.push(a, r);
+			}
+		}
+	}
+
+	/**
+	 * List the vertices with an excess or a deficit of at least delta
+	 */
+	private void collectEnds(long delta)
+	{
+		this.sourceCount = 0;
+		this.sinkCount = 0;
+		for(int u=0; u<this.csr.n; u++)
+		{
+			if(this.excess[u]>=delta)
+			{
+				this.sources[this.sourceCount++] = u;
+			}
+			else if(this.excess[u]<=-delta)
+			{
+				this.sinks[this.sinkCount++] = u;
+			}
+		}
+	}
+
+	/**
+	 * Dijkstra search by reduced cost from the vertices with an excess of at least delta, along the arcs with at
+	 * least delta of residual capacity, until a vertex with a deficit of at least delta is scanned. The potentials
+	 * of the scanned vertices then go up by their distance less that of the deficit, which keeps the reduced costs
+	 * non-negative and makes them 0 along the path.
+	 *
+	 * @param delta		Smallest residual capacity of an arc used in the phase
+	 * @return			true if a deficit was reached, whose path is then given by predArc
+	 */
+	private boolean search(long delta)
+	{
+		int k = 0;
+		for(int i=0; i<this.sinkCount; i++)
+		{
+			if(this.excess[this.sinks[i]]<=-delta)
+			{
+				this.sinks[k++] = this.sinks[i];
+			}
+		}
+		this.sinkCount = k;
+		if(this.sinkCount==0)
+		{
+			return false;
+		}
+		this.heap.clear();
+		k = 0;
+		for(int i=0; i<this.sourceCount; i++)
+		{
+			int u = this.sources[i];
+			if(this.excess[u]>=delta)
+			{
+				this.sources[k++] = u;
+				this.dist[u] = 0;
+				this.predArc[u] = -1;
+				this.state[u] = 1;
+				this.seen[this.seenCount++] = u;
+				this.heap.add(u, 0);
+			}
+		}
+		this.sourceCount = k;
+		int found = -1;
+		while(!this.heap.isEmpty())
+		{
+			int u = this.heap.poll();
+			this.state[u] = 2;
+			this.scans++;
+			if(this.excess[u]<=-delta)
+			{
+				found = u;
+				break;
+			}
+			for(int a=this.csr.first[u]; a<this.csr.first[u+1]; a++)
+			{
+				int v = this.csr.head[a];
+				if(this.state[v]==2 || this.residual(a)<delta)
+				{
+					continue;
+				}
+				long d = this.dist[u]+this.reducedCost(a);
+				if(this.state[v]==0)
+				{
+					this.dist[v] = d;
+					this.predArc[v] = a;
+					this.state[v] = 1;
+					this.seen[this.seenCount++] = v;
+					this.heap.add(v, d);
+				}
+				else if(d<this.dist[v])
+				{
+					this.dist[v] = d;
+					this.predArc[v] = a;
+					this.heap.decrease(v, d);
+				}
+			}
+		}
+
+		//Update the potentials of the scanned vertices and reset the search
+		long limit = found>=0 ? this.dist[found] : 0;
+		for(int i=0; i<this.seenCount; i++)
+		{
+			int v = this.seen[i];
+			if(found>=0 && this.state[v]==2)
+			{
+				this.pi[v] += this.dist[v]-limit;
+			}
+			this.state[v] = 0;
+		}
+		this.seenCount = 0;
+		this.target = found;
+		return found>=0;
+	}
+
+	/**
+	 * Send as much as the path found by the last search can carry, from its start to the deficit at its end
+	 */
+	private void augment()
+	{
+		int t = this.target;
+		long amount = -this.excess[t];
+		int u = t;
+		while(this.predArc[u]>=0)
+		{
+			int a = this.predArc[u];
+			amount = Math.min(amount, this.residual(a));
+			u = this.csr.tail[a];
+		}
+		amount = Math.min(amount, this.excess[u]);
+		for(int v=t; this.predArc[v]>=0; v=this.csr.tail[this.predArc[v]])
+		{
+			this.push(this.predArc[v], (int) amount);
+		}
+		this.augmentations++;
+	}
+
+	/**
+	 * Augment along every other path of arcs with reduced cost 0 and at least delta of residual capacity, from the
+	 * vertices with an excess to the ones with a deficit, before the next search. These are shortest paths too,
+	 * so one search serves many of them. The walk keeps a current arc at each vertex and drops the vertices from
+	 * which no deficit can be reached.
+	 *
+	 * @param delta		Smallest residual capacity of an arc used in the phase
+	 */
+	private void augmentAdmissible(long delta)
+	{
+		this.rounds++;
+		for(int i=0; i<this.sourceCount; i++)
+		{
+			int s = this.sources[i];
+			while(this.excess[s]>=delta && this.walk(s, delta))
+			{
+				this.augment();
+			}
+		}
+	}
+
+	/**
+	 * Walk from s along arcs with reduced cost 0 until a deficit of at least delta is reached
+	 *
+	 * @param s			Start of the walk
+	 * @param delta		Smallest residual capacity of an arc used in the phase
+	 * @return			true if a deficit was reached, whose path is then given by predArc
+	 */
+	private boolean walk(int s, long delta)
+	{
+		this.visit(s);
+		if(this.dead[s])
+		{
+			return false;
+		}
+		int len = 0;
+		int u = s;
+		this.onPath[s] = true;
+		this.predArc[s] = -1;
+		while(true)
+		{
+			if(this.excess[u]<=-delta)
+			{
+				for(int i=0; i<len; i++)
+				{
+					this.onPath[this.csr.head[this.path[i]]] = false;
+				}
+				this.onPath[s] = false;
+				this.target = u;
+				return true;
+			}
+			int a = this.current[u];
+			while(a<this.csr.first[u+1])
+			{
+				int v = this.csr.head[a];
+				this.visit(v);
+				if(!this.dead[v] && !this.onPath[v] && this.residual(a)>=delta && this.reducedCost(a)==0)
+				{
+					break;
+				}
+				a++;
+			}
+			this.current[u] = a;
+			if(a<this.csr.first[u+1])
+			{
+				int v = this.csr.head[a];
+				this.path[len++] = a;
+				this.predArc[v] = a;
+				this.onPath[v] = true;
+				u = v;
+				continue;
+			}
+
+			//No deficit can be reached from u in this round
+			this.dead[u] = true;
+			this.onPath[u] = false;
+			if(len==0)
+			{
+				return false;
+			}
+			u = this.csr.tail[this.path[--len]];
+			this.current[u]++;
+		}
+	}
+
+	/**
+	 * Reset the current arc and marks of a vertex the first time it is seen in a round
+	 */
+	private void visit(int u)
+	{
+		if(this.round[u]!=this.rounds)
+		{
+			this.round[u] = this.rounds;
+			this.current[u] = this.csr.first[u];
+			this.dead[u] = false;
+			this.onPath[u] = false;
+		}
+	}
+
+	/**
+	 * Residual capacity of an arc
+	 */
+	private int residual(int a)
+	{
+		int k = this.csr.edge[a];
+		return this.csr.forward[a] ? this.capacity.get(k)-this.flow.get(k) : this.flow.get(k);
+	}
+
+	/**
+	 * Reduced cost of an arc, its cost being minus that of its edge for a reverse arc
+	 */
+	private long reducedCost(int a)
+	{
+		int c = this.cost.get(this.csr.edge[a]);
+		return (this.csr.forward[a] ? c : -c)+this.pi[this.csr.tail[a]]-this.pi[this.csr.head[a]];
+	}
+
+	/**
+	 * Push delta units of flow along arc a and update the excess at its ends
+	 */
+	private void push(int a, int delta)
+	{
+		this.flow.add(this.csr.edge[a], this.csr.forward[a] ? delta : -delta);
+		this.excess[this.csr.tail[a]] -= delta;
+		this.excess[this.csr.head[a]] += delta;
+	}
+
+	/**
+	 * Flow going through edge e after MCFforCPP
+	 */
+	public int flow(Edge e) {
+		return this.flow.get(e);
+	}
+
+	/**
+	 * Capacity of edge e
+	 */
+	public int capacity(Edge e) {
+		return this.capacity.get(e);
+	}
+
+	/**
+	 * Cost per flow of edge e
+	 */
+	public int cost(Edge e) {
+		return this.cost.get(e);
+	}
+}
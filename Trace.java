@@ -0,0 +1,194 @@
+package sxa190016;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Trace: Sink for the events of the flow algorithms, in place of printing inside their loops.
+ * 							An event is a type, an int and a long. The algorithms only record events when a trace is set,
+ * 							and with ENABLED set to false the calls are dropped by the compiler altogether.
+ * 							TraceRenderer prints a trace written by BinaryFile.
+ */
+public interface Trace {
+	/**
+	 * Set to false and recompile to take every trace call out of the algorithms
+	 */
+	public static final boolean ENABLED = true;
+
+	/**
+	 * Push along an edge: the edge name, negative for its reverse arc, and the amount
+	 */
+	public static final byte PUSH = 1;
+
+	/**
+	 * Relabel in push-relabel: the vertex name and its new height
+	 */
+	public static final byte RELABEL = 2;
+
+	/**
+	 * Relabel in cost scaling: the vertex name and its new price, in units of the costs times n+1
+	 */
+	public static final byte PRICE = 3;
+
+	/**
+	 * Gap: the height left empty and the number of gaps found so far
+	 */
+	public static final byte GAP = 4;
+
+	/**
+	 * Global relabel: the number of global relabels so far and the number of active vertices after it
+	 */
+	public static final byte GLOBAL_RELABEL = 5;
+
+	/**
+	 * End of a phase: its number and a value of the phase, the delta of excess scaling, the cost after a refine
+	 * or the number of active vertices after a round of ParallelFlow
+	 */
+	public static final byte PHASE = 6;
+
+	/**
+	 * Start of a refine: the number of the phase and epsilon, in units of the costs times n+1
+	 */
+	public static final byte EPSILON = 7;
+
+	/**
+	 * Record one event
+	 *
+	 * @param type		Type of the event
+	 * @param a			Its int value
+	 * @param b			Its long value
+	 */
+	public void record(byte type, int a, long b);
+
+	/**
+	 * Flush and release what the trace holds
+	 */
+	public default void close() {
+	}
+
+	/**
+	 * Keep the last events in preallocated arrays, so recording costs no allocation
+	 */
+	public static class RingBuffer implements Trace {
+		/**
+		 * The fields of the events, the event number i is stored at i%capacity
+		 */
+		private byte [] type;
+		private int [] a;
+		private long [] b;
+
+		/**
+		 * Number of events recorded
+		 */
+		private long count;
+
+		/**
+		 * Constructor keeping the last capacity events
+		 *
+		 * @param capacity	Number of events kept
+		 */
+		public RingBuffer(int capacity) {
+			this.type = new byte[Math.max(capacity, 1)];
+			this.a = new int[this.type.length];
+			this.b = new long[this.type.length];
+		}
+
+		public void record(byte type, int a, long b) {
+			int i = (int) (this.count++ % this.type.length);
+			this.type[i] = type;
+			this.a[i] = a;
+			this.b[i] = b;
+		}
+
+		/**
+		 * Number of events recorded, including the ones overwritten
+		 */
+		public long count() {
+			return this.count;
+		}
+
+		/**
+		 * Record the events kept into another trace, oldest first
+		 *
+		 * @param sink		The trace receiving them, a BinaryFile to render them later
+		 */
+		public void replay(Trace sink) {
+			long from = Math.max(0, this.count-this.type.length);
+			for(long k=from; k<this.count; k++)
+			{
+				int i = (int) (k % this.type.length);
+				sink.record(this.type[i], this.a[i], this.b[i]);
+			}
+		}
+
+		/**
+		 * Forget the events
+		 */
+		public void clear() {
+			this.count = 0;
+		}
+	}
+
+	/**
+	 * Write the events to a file through a buffer, 13 bytes each after a 4-byte header
+	 */
+	public static class BinaryFile implements Trace {
+		/**
+		 * First int of the file
+		 */
+		public static final int MAGIC = 0x46545231;
+
+		/**
+		 * The buffered file
+		 */
+		private DataOutputStream out;
+
+		/**
+		 * Constructor to open the file
+		 *
+		 * @param path		Path of the file, replaced if it exists
+		 */
+		public BinaryFile(String path) {
+			try
+			{
+				this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1<<16));
+				this.out.writeInt(MAGIC);
+			}
+			catch(IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		public void record(byte type, int a, long b) {
+			try
+			{
+				this.out.writeByte(type);
+				this.out.writeInt(a);
+				this.out.writeLong(b);
+			}
+			catch(IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		public void close() {
+			try
+			{
+				this.out.close();
+			}
+			catch(IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+}
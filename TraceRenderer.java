@@ -0,0 +1,101 @@
+// Offline renderer of the traces written by Trace.BinaryFile
+package sxa190016;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * @author sxa190016
+ * @author axs190140
+ * @author epm180002
+ * @author nxs190026
+ * @version 1.0 Trace Renderer: Print a trace file written by Trace.BinaryFile one event per line, followed by the number
+ * 							of events of each type.
+ */
+public class TraceRenderer {
+	/**
+	 * Name of each event type
+	 */
+	static String[] NAMES = { "", "push", "relabel", "price", "gap", "global relabel", "phase", "epsilon" };
+
+	/**
+	 * Set to true to print only the number of events of each type
+	 */
+	static boolean SUMMARY = false;
+
+	/**
+	 * The main method of the class
+	 *
+	 * @param args			The trace file, and optionally "summary"
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("Usage: java TraceRenderer <trace file> [summary]");
+			return;
+		}
+		if (args.length > 1) {
+			SUMMARY = args[1].equals("summary");
+		}
+		long[] count = new long[NAMES.length];
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(args[0]), 1 << 16))) {
+			if (in.readInt() != Trace.BinaryFile.MAGIC) {
+				throw new IOException(args[0] + " is not a trace file");
+			}
+			long i = 0;
+			while (true) {
+				byte type;
+				try {
+					type = in.readByte();
+				} catch (EOFException e) {
+					break;
+				}
+				int a = in.readInt();
+				long b = in.readLong();
+				if (type > 0 && type < NAMES.length) {
+					count[type]++;
+				}
+				if (!SUMMARY) {
+					System.out.println(i + " " + render(type, a, b));
+				}
+				i++;
+			}
+		}
+
+		//Print the number of events of each type
+		for (int type = 1; type < NAMES.length; type++) {
+			System.out.println(NAMES[type] + ": " + count[type]);
+		}
+	}
+
+	/**
+	 * Text of one event
+	 *
+	 * @param type		Type of the event
+	 * @param a			Its int value
+	 * @param b			Its long value
+	 * @return			The text
+	 */
+	static String render(byte type, int a, long b) {
+		switch (type) {
+		case Trace.PUSH:
+			return "push " + b + " along edge " + Math.abs(a) + (a < 0 ? " backwards" : "");
+		case Trace.RELABEL:
+			return "relabel vertex " + a + " to height " + b;
+		case Trace.PRICE:
+			return "relabel vertex " + a + " to price " + b;
+		case Trace.GAP:
+			return "gap at height " + a + ", gap " + b;
+		case Trace.GLOBAL_RELABEL:
+			return "global relabel " + a + ", " + b + " active vertices";
+		case Trace.PHASE:
+			return "end of phase " + a + ": " + b;
+		case Trace.EPSILON:
+			return "phase " + a + " epsilon " + b;
+		default:
+			return "unknown event " + type + " " + a + " " + b;
+		}
+	}
+}
@@ -5,8 +5,6 @@ import sxa190016.Graph;
 import sxa190016.Graph.Edge;
 import sxa190016.Graph.Vertex;
 
-import java.util.HashMap;
-
 /**
  * @author sxa190016
  * @author axs190140
@@ -20,6 +18,34 @@ public class maxFlowDriver {
 	 */
 	static int VERBOSE = 0;
 
+	/**
+	 * A global relabel is done after GLOBAL_RELABEL*(n+2m) units of relabel work, 0 to disable
+	 */
+	static double GLOBAL_RELABEL = 1.0;
+
+	/**
+	 * Engine and order of selecting the active vertices: "fifo", "hl" for highest label, "scaling" for excess scaling,
+	 * "parallel" for the parallel engine,
+	 * "dinic", "bk" for Boykov-Kolmogorov or "auto" to let MaxFlowSolver.select choose
+	 */
+	static String SELECTION = "fifo";
+
+	/**
+	 * Set to true to find only the min cut, skipping the phase where excess is returned to the source (push-relabel only)
+	 */
+	static boolean MIN_CUT_ONLY = false;
+
+	/**
+	 * Flow value of a decision query, which only asks whether the max flow is at least this much (push-relabel only).
+	 * null for no query.
+	 */
+	static Integer THRESHOLD = null;
+
+	/**
+	 * File to write the trace of a push-relabel engine to, null for no trace
+	 */
+	static String TRACE = null;
+
 	/**
 	 * The main method of the class
 	 * 
@@ -29,6 +55,21 @@ public class maxFlowDriver {
 		if (args.length > 0) {
 			VERBOSE = Integer.parseInt(args[0]);
 		}
+		if (args.length > 1) {
+			GLOBAL_RELABEL = Double.parseDouble(args[1]);
+		}
+		if (args.length > 2) {
+			SELECTION = args[2];
+		}
+		if (args.length > 3) {
+			MIN_CUT_ONLY = args[3].equals("mincut");
+			if (args[3].matches("-?\\d+")) {
+				THRESHOLD = Integer.parseInt(args[3]);
+			}
+		}
+		if (args.length > 4) {
+			TRACE = args[4];
+		}
 		
 		//Read from console
 		java.util.Scanner in = new java.util.Scanner(System.in);
@@ -46,7 +87,7 @@ public class maxFlowDriver {
 		int t = in.nextInt();
 		
 		//Initialize capacity f all the edges
-		HashMap<Edge, Integer> capacity = new HashMap<>();
+		EdgeIntProperty capacity = new EdgeIntProperty(g);
 		int[] arr = new int[1 + g.edgeSize()];
 		for (int i = 1; i <= g.edgeSize(); i++) {
 			arr[i] = 1;   // default capacity
@@ -67,28 +108,83 @@ public class maxFlowDriver {
 		}
 
 		//Initialize flow object
-		Flow f = new Flow(g, g.getVertex(s), g.getVertex(t), capacity);
-		
-		//Set verbosity level of output
-		//f.setVerbose(VERBOSE);
+		MaxFlowSolver solver;
+		Trace trace = null;
+		if (SELECTION.equals("dinic")) {
+			solver = new Dinic(g, g.getVertex(s), g.getVertex(t), capacity);
+		} else if (SELECTION.equals("bk")) {
+			solver = new BoykovKolmogorov(g, g.getVertex(s), g.getVertex(t), capacity);
+		} else if (SELECTION.equals("auto")) {
+			solver = MaxFlowSolver.select(g, g.getVertex(s), g.getVertex(t), capacity);
+		} else {
+			Flow f = SELECTION.equals("parallel") ? new ParallelFlow(g, g.getVertex(s), g.getVertex(t), capacity)
+					: new Flow(g, g.getVertex(s), g.getVertex(t), capacity);
+			
+			//Set verbosity level of output
+			//f.setVerbose(VERBOSE);
+			
+			//Set how often the heights are recomputed
+			f.setGlobalRelabelFrequency(GLOBAL_RELABEL);
+			
+			//Set the order of selecting the active vertices
+			if (SELECTION.equals("hl")) {
+				f.setActiveVertices(new ActiveVertices.HighestLabel(g.size()));
+			}
+			
+			//Discharge by excess scaling
+			if (SELECTION.equals("scaling")) {
+				f.setExcessScaling(true);
+			}
+
+			//Record the trace
+			if (TRACE != null) {
+				trace = new Trace.BinaryFile(TRACE);
+				f.setTrace(trace);
+			}
+			solver = f;
+		}
 		
-		//Find max-flow value
-		int value = f.preflowPush();
+		//Answer the decision query, the certificate is a flow of value THRESHOLD or a cut of smaller capacity
+		boolean flowCertificate = false;
+		if (THRESHOLD != null && solver instanceof Flow) {
+			flowCertificate = ((Flow) solver).atLeast(THRESHOLD);
+			System.out.println("At least " + THRESHOLD + ": " + flowCertificate);
+		} else {
+			//Find max-flow value
+			int value = MIN_CUT_ONLY && solver instanceof Flow ? ((Flow) solver).minCutOnly() : solver.maxFlow();
 
-		//Print max-flow value
-		System.out.println(value);
+			//Print max-flow value
+			System.out.println(value);
+		}
 		
-		//If verbosity is greater than 0 print the final flow through all edges and the min-cut sets S and T
+		//Write the rest of the trace to its file
+		if (trace != null) {
+			trace.close();
+		}
+
+		//If verbosity is greater than 0 print the final flow through all edges, the min-cut sets S and T and the stats, in Prometheus format if greater than 1
 		if (VERBOSE > 0) {
 			for (Vertex u : g) {
 				System.out.print(u + " : ");
 				for(Edge e: g.outEdges(u)) {
-					System.out.print(e + ":" + f.flow(e) + "/" + f.capacity(e) + " | ");
+					System.out.print(e + ":" + solver.flow(e) + "/" + solver.capacity(e) + " | ");
 				}
 				System.out.println();
 			}
-			System.out.println("Min cut: S = " + f.minCutS());
-			System.out.println("Min cut: T = " + f.minCutT());
+			if (!flowCertificate) {
+				System.out.println("Min cut: S = " + solver.minCutS());
+				System.out.println("Min cut: T = " + solver.minCutT());
+			}
+			if (solver instanceof Flow) {
+				System.out.println(((Flow) solver).stats());
+				if (VERBOSE > 1) {
+					System.out.print(((Flow) solver).stats().toPrometheus());
+				}
+			} else if (solver instanceof Dinic) {
+				System.out.println("Phases: " + ((Dinic) solver).phases());
+			} else if (solver instanceof BoykovKolmogorov) {
+				System.out.println("Augmentations: " + ((BoykovKolmogorov) solver).augmentations());
+			}
 		}
 
 		//Print the time taken for execution